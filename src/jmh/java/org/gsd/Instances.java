@@ -0,0 +1,59 @@
+package org.gsd;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * The bundled kp instances, and random instances of any size.
+ *
+ * @author jimmy
+ */
+class Instances {
+
+    static byte[] read(int objectives, int items, int instance) throws IOException {
+        String resource = "/kp/KP_p-" + objectives + "_n-" + items + "_ins-" + instance + ".dat";
+        try (InputStream in = Instances.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new FileNotFoundException(resource);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    static KnapsackProblem parse(byte[] instance) throws IOException {
+        return KnapsackLoader.parse(ByteBuffer.wrap(instance));
+    }
+
+    static KnapsackProblem parse(int objectives, int items, int instance) throws IOException {
+        return parse(read(objectives, items, instance));
+    }
+
+    /*
+     * Same distribution as the bundled instances: the capacity is half the
+     * total weight.
+     */
+    static KnapsackProblem random(int objectives, int items, long seed) {
+        Random random = new Random(seed);
+        int[] weights = new int[items];
+        int[][] energies = new int[objectives][items];
+        int totalWeight = 0;
+        for (int i = 0; i < items; i++) {
+            weights[i] = 1 + random.nextInt(1000);
+            totalWeight += weights[i];
+            for (int[] energy : energies) {
+                energy[i] = 1 + random.nextInt(1000);
+            }
+        }
+        return new KnapsackProblem(totalWeight / 2, weights, energies);
+    }
+}
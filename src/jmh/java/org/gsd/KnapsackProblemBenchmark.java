@@ -0,0 +1,94 @@
+package org.gsd;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.uma.jmetal.solution.BinarySolution;
+
+/**
+ * Evaluates the solutions of a random instance. Every operation first changes
+ * the items of the next solution of a small population, either to an
+ * unrelated random set which takes a full evaluation, or by a single item
+ * which takes a delta evaluation.
+ *
+ * @author jimmy
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class KnapsackProblemBenchmark {
+
+    private static final int POPULATION = 64;
+
+    @Param({"3", "5"})
+    int objectives;
+    @Param({"100", "1000", "10000"})
+    int items;
+
+    private KnapsackProblem problem;
+    private BinarySolution[] population;
+    private BitSet[] randomItems;
+    private int[] flips;
+    private long next = 0;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        problem = Instances.random(objectives, items, 0);
+        Random random = new Random(1);
+        population = new BinarySolution[POPULATION];
+        randomItems = new BitSet[POPULATION + 1];
+        for (int i = 0; i < randomItems.length; i++) {
+            randomItems[i] = new BitSet(items);
+            for (int j = 0; j < items; j++) {
+                randomItems[i].set(j, random.nextBoolean());
+            }
+        }
+        for (int i = 0; i < population.length; i++) {
+            population[i] = problem.createSolution();
+            problem.evaluate(population[i]);
+            problem.evaluateConstraints(population[i]);
+        }
+        flips = new int[1024];
+        for (int i = 0; i < flips.length; i++) {
+            flips[i] = random.nextInt(items);
+        }
+    }
+
+    @Benchmark
+    public BinarySolution evaluate() {
+        long i = next++;
+        BinarySolution solution = population[(int) (i % POPULATION)];
+        /* POPULATION + 1 sets, so a solution never gets the same set twice in a row. */
+        BitSet solutionItems = solution.getVariableValue(0);
+        solutionItems.clear();
+        solutionItems.or(randomItems[(int) (i % randomItems.length)]);
+        problem.evaluate(solution);
+        problem.evaluateConstraints(solution);
+        return solution;
+    }
+
+    @Benchmark
+    public BinarySolution evaluateOneChange() {
+        long i = next++;
+        BinarySolution solution = population[(int) (i % POPULATION)];
+        solution.getVariableValue(0).flip(flips[(int) (i % flips.length)]);
+        problem.evaluate(solution);
+        problem.evaluateConstraints(solution);
+        return solution;
+    }
+}
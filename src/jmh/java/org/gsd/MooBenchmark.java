@@ -0,0 +1,74 @@
+package org.gsd;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.SolverFactory;
+import org.chocosolver.solver.variables.IntVar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Solves a bundled instance from scratch once per iteration. The model is
+ * built outside the measurement with a fixed search seed, so every iteration
+ * explores the same tree. Five objectives are left out of the defaults since
+ * classic takes minutes on KP_p-5_n-20, pass -p objectives=5 to include them.
+ *
+ * @author jimmy
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MooBenchmark {
+
+    @Param({"3", "4"})
+    int objectives;
+    @Param({"10", "20"})
+    int items;
+    @Param({"1"})
+    int instance;
+
+    private KnapsackProblem problem;
+    private Solver solver;
+    private IntVar[] totalEnergies;
+
+    @Setup(Level.Trial)
+    public void parse() throws IOException {
+        problem = Instances.parse(objectives, items, instance);
+    }
+
+    @Setup(Level.Iteration)
+    public void model() {
+        solver = SolverFactory.makeSolver();
+        totalEnergies = KnapsackRunner.choco(problem, solver, new Budget(), 0, true);
+    }
+
+    @Benchmark
+    public List<int[]> oia() {
+        return Moo.oia(solver, totalEnergies);
+    }
+
+    @Benchmark
+    public int gia() {
+        return Moo.gia(solver, totalEnergies);
+    }
+
+    @Benchmark
+    public List<int[]> classic() {
+        return Moo.classic(solver, totalEnergies);
+    }
+}
@@ -0,0 +1,58 @@
+package org.gsd;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parses a bundled instance held in memory, so that only the parser is
+ * measured and not the disk, and reads its binary cache likewise.
+ *
+ * @author jimmy
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({"3", "4", "5"})
+    int objectives;
+    @Param({"10", "20"})
+    int items;
+    @Param({"1"})
+    int instance;
+
+    private byte[] bytes;
+    private ByteBuffer cache;
+
+    @Setup(Level.Trial)
+    public void read() throws IOException {
+        bytes = Instances.read(objectives, items, instance);
+        cache = KnapsackLoader.encode(Instances.parse(bytes));
+    }
+
+    @Benchmark
+    public KnapsackProblem parse() throws IOException {
+        return Instances.parse(bytes);
+    }
+
+    @Benchmark
+    public KnapsackProblem readCache() throws IOException {
+        return KnapsackLoader.read(cache);
+    }
+}
@@ -0,0 +1,74 @@
+package org.gsd;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.uma.jmetal.util.point.Point;
+import org.uma.jmetal.util.point.impl.ArrayPoint;
+
+/**
+ * Merges random fronts into an oracle. The points are scattered around a
+ * hyperplane, so like real fronts most of them are mutually non-dominated but
+ * every front dominates part of the others.
+ *
+ * @author jimmy
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class QualityBenchmark {
+
+    @Param({"3", "5"})
+    int objectives;
+    @Param({"100", "1000", "10000"})
+    int points;
+    @Param({"4"})
+    int fronts;
+
+    private List<List<Point>> paretoFronts;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        Random random = new Random(0);
+        paretoFronts = new ArrayList<>();
+        for (int f = 0; f < fronts; f++) {
+            List<Point> paretoFront = new ArrayList<>();
+            for (int p = 0; p < points; p++) {
+                double[] direction = new double[objectives];
+                double sum = 0;
+                for (int i = 0; i < objectives; i++) {
+                    direction[i] = random.nextDouble();
+                    sum += direction[i];
+                }
+                double radius = 100000 * (1 + 0.05 * random.nextGaussian());
+                double[] paretoPoint = new double[objectives];
+                for (int i = 0; i < objectives; i++) {
+                    paretoPoint[i] = -Math.round(radius * direction[i] / sum);
+                }
+                paretoFront.add(new ArrayPoint(paretoPoint));
+            }
+            paretoFronts.add(paretoFront);
+        }
+    }
+
+    @Benchmark
+    public List<Point> merge() {
+        return Quality.merge(paretoFronts);
+    }
+}
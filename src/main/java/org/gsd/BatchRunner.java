@@ -0,0 +1,207 @@
+package org.gsd;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.uma.jmetal.util.pseudorandom.JMetalRandom;
+
+/**
+ * Runs every algorithm on every instance of a directory for a number of seeds
+ * in one JVM, the jobs sharing a bounded pool, and prints one row per job as
+ * it completes, eg.
+ * <pre>
+ * java -Dbatch.format=json org.gsd.BatchRunner kp 0,4,9 5
+ * </pre>
+ * runs oia, nsgaii and decompose with the seeds 0 to 4 on every .dat file of
+ * kp. The options are
+ * <ul>
+ * <li>-Dbatch.timeout the seconds allowed to every job, 300 by default
+ * <li>-Dbatch.cpu, -Dbatch.nodes, -Dbatch.fails and -Dbatch.evaluations
+ * further limit every job, see Budget
+ * <li>-Dbatch.threads the threads of every job, for the evaluators,
+ * portfolio, decompose, nemhauserUllmann and the islands, 1 by default
+ * <li>-Dbatch.population the population of the metaheuristics, 100 by
+ * default
+ * <li>-Dbatch.memory the megabytes of heap a job is expected to need, 256 by
+ * default, bounding the number of concurrent jobs along with the cores
+ * <li>-Dbatch.format csv or json, one object per line
+ * <li>-Dbatch.cache true to load the instances through their binary cache,
+ * see KnapsackLoader
+ * <li>-Dbatch.fronts a directory receiving the front of every job, in the
+ * format read by Quality
+ * </ul>
+ *
+ * @author jimmy
+ */
+public class BatchRunner {
+
+    private static final long TIMEOUT = Long.getLong("batch.timeout", 300) * 1000;
+    private static final Long CPU = Long.getLong("batch.cpu");
+    private static final Long NODES = Long.getLong("batch.nodes");
+    private static final Long FAILS = Long.getLong("batch.fails");
+    private static final Long EVALUATIONS = Long.getLong("batch.evaluations");
+    private static final int THREADS = Integer.getInteger("batch.threads", 1);
+    private static final int POPULATION = Integer.getInteger("batch.population", 100);
+    private static final long MEMORY = Long.getLong("batch.memory", 256) * 1024 * 1024;
+    private static final String FORMAT = System.getProperty("batch.format", "csv");
+    private static final String FRONTS = System.getProperty("batch.fronts");
+    private static final boolean CACHE = Boolean.getBoolean("batch.cache");
+
+    private static final String[] COLUMNS = {
+        "instance", "algorithm", "seed", "objectives", "items", "front", "solutions", "time", "limit"
+    };
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<Integer> algorithms = new ArrayList<>();
+        for (String algorithm : args[1].split(",")) {
+            algorithms.add(Integer.parseInt(algorithm));
+        }
+        int seeds = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        /* Every job seeds and draws from the generator of its own thread. */
+        ThreadLocalGenerator.install();
+        run(instances(Paths.get(args[0])), algorithms, seeds, System.out);
+    }
+
+    /**
+     * @return the .dat files of the directory, in name order
+     */
+    public static List<Path> instances(Path directory) throws IOException {
+        List<Path> instances = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.dat")) {
+            files.forEach(instances::add);
+        }
+        Collections.sort(instances);
+        return instances;
+    }
+
+    /**
+     * Number of jobs run at once: as many as the cores allow given the threads
+     * of every job, and as the heap allows given their expected memory.
+     */
+    public static int parallelism() {
+        int cores = Runtime.getRuntime().availableProcessors() / THREADS;
+        long memory = Runtime.getRuntime().maxMemory() / MEMORY;
+        return (int) Math.max(1, Math.min(cores, memory));
+    }
+
+    public static void run(List<Path> instances, List<Integer> algorithms, int seeds, PrintStream out)
+            throws IOException, InterruptedException {
+        if (!FORMAT.equals("csv") && !FORMAT.equals("json")) {
+            throw new IllegalArgumentException("Unknown format: " + FORMAT);
+        }
+        if (FORMAT.equals("csv")) {
+            out.println(String.join(",", COLUMNS));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism());
+        try {
+            List<Future<?>> jobs = new ArrayList<>();
+            for (Path instance : instances) {
+                for (int algorithm : algorithms) {
+                    for (int seed = 0; seed < seeds; seed++) {
+                        int s = seed;
+                        jobs.add(executor.submit(() -> {
+                            String row = run(instance, algorithm, s);
+                            synchronized (out) {
+                                out.println(row);
+                                out.flush();
+                            }
+                            return null;
+                        }));
+                    }
+                }
+            }
+            for (Future<?> job : jobs) {
+                job.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String run(Path instance, int algorithm, int seed) throws IOException {
+        /* Jobs on the same instance may both write its cache, moved in place atomically. */
+        KnapsackProblem problem = KnapsackLoader.load(instance, CACHE);
+        JMetalRandom.getInstance().setSeed(seed);
+        KnapsackRunner.Result result = KnapsackRunner.solve(algorithm, problem, THREADS, budget(), seed, null, null, POPULATION);
+
+        String name = instance.getFileName().toString();
+        if (FRONTS != null) {
+            File file = new File(FRONTS, name + "." + result.name + "." + seed);
+            try (PrintStream front = new PrintStream(file)) {
+                for (int[] paretoPoint : result.paretoFront) {
+                    for (int p : paretoPoint) {
+                        front.print(p + " ");
+                    }
+                    front.println(";");
+                }
+            }
+        }
+
+        Object[] values = {
+            name, result.name, seed, problem.getNumberOfObjectives(), problem.getNumberOfObjects(),
+            result.paretoFront.size(), result.solutions < 0 ? null : result.solutions, result.time, result.limitReached
+        };
+        return FORMAT.equals("csv") ? csv(values) : json(values);
+    }
+
+    private static Budget budget() {
+        Budget budget = new Budget().withWallClock(TIMEOUT);
+        if (CPU != null) {
+            budget.withCpuTime(CPU * 1000);
+        }
+        if (NODES != null) {
+            budget.withNodes(NODES);
+        }
+        if (FAILS != null) {
+            budget.withFails(FAILS);
+        }
+        if (EVALUATIONS != null) {
+            budget.withEvaluations(EVALUATIONS);
+        }
+        return budget;
+    }
+
+    private static String csv(Object[] values) {
+        StringBuilder row = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                row.append(',');
+            }
+            if (values[i] instanceof String) {
+                row.append('"').append(((String) values[i]).replace("\"", "\"\"")).append('"');
+            } else if (values[i] != null) {
+                row.append(values[i]);
+            }
+        }
+        return row.toString();
+    }
+
+    private static String json(Object[] values) {
+        StringBuilder row = new StringBuilder("{");
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                row.append(", ");
+            }
+            row.append('"').append(COLUMNS[i]).append("\": ");
+            if (values[i] instanceof String) {
+                row.append('"').append(((String) values[i]).replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+            } else {
+                row.append(values[i]);
+            }
+        }
+        return row.append('}').toString();
+    }
+}
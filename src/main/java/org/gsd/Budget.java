@@ -0,0 +1,263 @@
+package org.gsd;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.search.loop.monitors.IMonitorContradiction;
+import org.chocosolver.solver.search.loop.monitors.IMonitorInitialize;
+import org.chocosolver.solver.search.loop.monitors.IMonitorOpenNode;
+import org.uma.jmetal.problem.Problem;
+import org.uma.jmetal.solution.Solution;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+
+/**
+ * The resources a run may use: wall-clock time, CPU time, Choco nodes and
+ * fails, and jMetal evaluations, each unlimited unless set. The searches only
+ * read a volatile flag, set by a shared scheduler thread once the wall-clock
+ * deadline passes or the CPU time runs out, and by the counters once they
+ * reach their limit: a limit of n nodes, fails or evaluations exhausts the
+ * budget as the n-th is counted, a node once it is open. The counters are only
+ * kept for the limits that are set. One budget may be shared by several
+ * solvers and threads, the limits then bounding them all together.
+ *
+ * @author jimmy
+ */
+public class Budget {
+
+    /* How often the CPU time of the searching threads is polled. */
+    private static final long TICK = 10;
+
+    private static final ScheduledThreadPoolExecutor SCHEDULER = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "Budget");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        SCHEDULER.setRemoveOnCancelPolicy(true);
+    }
+
+    private static final ThreadMXBean BEAN = ManagementFactory.getThreadMXBean();
+
+    private long wallClock = Long.MAX_VALUE;
+    private long cpuTime = Long.MAX_VALUE;
+    private long nodeLimit = Long.MAX_VALUE;
+    private long failLimit = Long.MAX_VALUE;
+    private long evaluationLimit = Long.MAX_VALUE;
+
+    private final AtomicLong nodes = new AtomicLong();
+    private final AtomicLong fails = new AtomicLong();
+    private final AtomicLong evaluations = new AtomicLong();
+    /* The threads whose CPU time counts, and their CPU time when they started the budget and when last polled. */
+    private final Map<Long, long[]> threads = new ConcurrentHashMap<>();
+    /* The CPU time of the threads that ended, up to their last poll. */
+    private long ended = 0;
+
+    private Budget parent = null;
+
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private volatile boolean exhausted = false;
+    private volatile List<ScheduledFuture<?>> timers = Collections.emptyList();
+
+    public Budget withWallClock(long millis) {
+        this.wallClock = millis;
+        return this;
+    }
+
+    /**
+     * Limits the CPU time of the threads that start the budget, the Choco
+     * and jMetal main loops, not that of the evaluator threads.
+     */
+    public Budget withCpuTime(long millis) {
+        this.cpuTime = millis;
+        return this;
+    }
+
+    public Budget withNodes(long nodes) {
+        this.nodeLimit = nodes;
+        return this;
+    }
+
+    public Budget withFails(long fails) {
+        this.failLimit = fails;
+        return this;
+    }
+
+    public Budget withEvaluations(long evaluations) {
+        this.evaluationLimit = evaluations;
+        return this;
+    }
+
+    /**
+     * Exhausts this budget as soon as the parent is, for a phase of a run to
+     * get its own limits within those of the run. The parent is neither
+     * started nor charged by this budget.
+     */
+    public Budget withParent(Budget parent) {
+        this.parent = parent;
+        return this;
+    }
+
+    /**
+     * Starts the clocks on the first call. Every call counts the CPU time of
+     * the calling thread from then on.
+     */
+    public void start() {
+        if (cpuTime != Long.MAX_VALUE) {
+            long time = BEAN.getCurrentThreadCpuTime();
+            threads.putIfAbsent(Thread.currentThread().getId(), new long[]{time, time});
+        }
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        List<ScheduledFuture<?>> scheduled = new ArrayList<>();
+        if (wallClock != Long.MAX_VALUE) {
+            scheduled.add(SCHEDULER.schedule(this::exhaust, wallClock, TimeUnit.MILLISECONDS));
+        }
+        if (cpuTime != Long.MAX_VALUE) {
+            scheduled.add(SCHEDULER.scheduleAtFixedRate(() -> {
+                if (cpuTime() >= TimeUnit.MILLISECONDS.toNanos(cpuTime)) {
+                    exhaust();
+                }
+            }, TICK, TICK, TimeUnit.MILLISECONDS));
+        }
+        timers = scheduled;
+        if (exhausted) {
+            stop();
+        }
+    }
+
+    /**
+     * @return the nanoseconds of CPU time of the threads that started the
+     * budget, those that ended counting up to their last poll
+     */
+    synchronized long cpuTime() {
+        long total = 0;
+        for (Iterator<Map.Entry<Long, long[]>> i = threads.entrySet().iterator(); i.hasNext();) {
+            Map.Entry<Long, long[]> thread = i.next();
+            long[] times = thread.getValue();
+            /* -1 once the thread ended, its last reading is kept. */
+            long time = BEAN.getThreadCpuTime(thread.getKey());
+            if (time < 0) {
+                ended += times[1] - times[0];
+                i.remove();
+            } else {
+                times[1] = time;
+                total += time - times[0];
+            }
+        }
+        return ended + total;
+    }
+
+    /**
+     * Cancels the scheduled checks, once the run is over.
+     */
+    public void stop() {
+        for (ScheduledFuture<?> timer : timers) {
+            timer.cancel(false);
+        }
+    }
+
+    public void exhaust() {
+        exhausted = true;
+        stop();
+    }
+
+    public boolean isExhausted() {
+        return exhausted || parent != null && parent.isExhausted();
+    }
+
+    public void evaluated(long count) {
+        if (evaluationLimit != Long.MAX_VALUE && evaluations.addAndGet(count) >= evaluationLimit) {
+            exhaust();
+        }
+    }
+
+    void opened() {
+        if (nodeLimit != Long.MAX_VALUE && nodes.incrementAndGet() >= nodeLimit) {
+            exhaust();
+        }
+    }
+
+    void failed() {
+        if (failLimit != Long.MAX_VALUE && fails.incrementAndGet() >= failLimit) {
+            exhaust();
+        }
+    }
+
+    /**
+     * Starts the budget when the solver starts searching, and interrupts the
+     * search once it is exhausted, as a limit so that the engines can tell it
+     * from completion.
+     */
+    public void plug(Solver solver) {
+        solver.plugMonitor(new Monitor(solver));
+    }
+
+    /**
+     * @return the evaluator counting the evaluations against the budget
+     */
+    public <S extends Solution<?>> SolutionListEvaluator<S> count(SolutionListEvaluator<S> evaluator) {
+        return new SolutionListEvaluator<S>() {
+
+            @Override
+            public List<S> evaluate(List<S> solutionList, Problem<S> problem) {
+                List<S> evaluated = evaluator.evaluate(solutionList, problem);
+                evaluated(solutionList.size());
+                return evaluated;
+            }
+
+            @Override
+            public void shutdown() {
+                evaluator.shutdown();
+            }
+        };
+    }
+
+    private class Monitor implements IMonitorInitialize, IMonitorOpenNode, IMonitorContradiction {
+
+        private final Solver solver;
+
+        Monitor(Solver solver) {
+            this.solver = solver;
+        }
+
+        @Override
+        public void beforeInitialize() {
+            start();
+        }
+
+        @Override
+        public void afterInitialize() {
+        }
+
+        @Override
+        public void beforeOpenNode() {
+            if (isExhausted()) {
+                solver.getSearchLoop().interrupt("Budget exhausted", false);
+            }
+        }
+
+        @Override
+        public void afterOpenNode() {
+            opened();
+        }
+
+        @Override
+        public void onContradiction(ContradictionException cex) {
+            failed();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.gsd;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A Pareto archive shared between threads. Writers are serialized, and every
+ * accepted point is also appended to a log so that readers can catch up on
+ * the points found by others without taking the lock.
+ *
+ * @author jimmy
+ */
+public class ConcurrentParetoArchive {
+
+    private final ParetoArchive<Void> archive;
+    private volatile int[][] log = new int[16][];
+    private volatile int logSize = 0;
+
+    public ConcurrentParetoArchive(int dimensions) {
+        this.archive = new ParetoArchive<>(dimensions);
+    }
+
+    public int getDimensions() {
+        return archive.getDimensions();
+    }
+
+    /**
+     * @param listener notified of the changes to the archive, one thread at a
+     * time, or null
+     */
+    public synchronized void setListener(ParetoListener listener) {
+        archive.setListener(listener);
+    }
+
+    public synchronized boolean add(int[] point) {
+        if (!archive.add(point)) {
+            return false;
+        }
+        if (logSize == log.length) {
+            log = Arrays.copyOf(log, log.length * 2);
+        }
+        log[logSize] = point.clone();
+        logSize++;
+        return true;
+    }
+
+    public synchronized boolean isDominated(int[] point) {
+        return archive.isDominated(point);
+    }
+
+    public synchronized int size() {
+        return archive.size();
+    }
+
+    public synchronized List<int[]> getPoints() {
+        return archive.getPoints();
+    }
+
+    /**
+     * Passes every point accepted since the given version to consumer. The
+     * points might have been dominated by later points since.
+     *
+     * @return the version to pass on the next pull
+     */
+    public int pull(int version, Consumer<int[]> consumer) {
+        int size = logSize;
+        int[][] snapshot = log;
+        for (int i = version; i < size; i++) {
+            consumer.accept(snapshot[i]);
+        }
+        return size;
+    }
+}
@@ -0,0 +1,253 @@
+package org.gsd;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.uma.jmetal.solution.Solution;
+import org.uma.jmetal.util.solutionattribute.Ranking;
+import org.uma.jmetal.util.solutionattribute.impl.DominanceRanking;
+import org.uma.jmetal.util.solutionattribute.impl.OverallConstraintViolation;
+
+/**
+ * Ranks solutions into the fronts of DominanceRanking by efficient
+ * non-dominated sorting with binary search. An incremental ranking only
+ * inserts the solutions new since its previous call, as in a steady-state
+ * NSGA-II.
+ *
+ * @author jimmy
+ * @param <S> the solutions ranked
+ */
+public class EfficientNonDominatedSorting<S extends Solution<?>> extends DominanceRanking<S> {
+
+    private final boolean incremental;
+    private final OverallConstraintViolation<S> overallConstraintViolation = new OverallConstraintViolation<>();
+
+    private final List<List<Entry>> fronts = new ArrayList<>();
+    /* The entries of the last call, kept by an incremental ranking only. */
+    private final Map<S, Entry> entries = new IdentityHashMap<>();
+    private List<List<S>> subfronts = new ArrayList<>();
+    private int call = 0;
+
+    public EfficientNonDominatedSorting() {
+        this(false);
+    }
+
+    public EfficientNonDominatedSorting(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    private class Entry {
+
+        private final S solution;
+        /* The opposite of the violation degree, then the objectives, all minimized. */
+        private final double[] key;
+        private int rank;
+        private int seen;
+
+        Entry(S solution) {
+            this.solution = solution;
+            this.key = new double[solution.getNumberOfObjectives() + 1];
+            Double violation = overallConstraintViolation.getAttribute(solution);
+            /* Not -0.0, which sorts before 0.0. */
+            key[0] = violation == null || violation >= 0 ? 0 : -violation;
+            for (int i = 1; i < key.length; i++) {
+                key[i] = solution.getObjective(i - 1);
+            }
+        }
+    }
+
+    private static int compare(double[] a, double[] b) {
+        for (int i = 0; i < a.length; i++) {
+            int c = Double.compare(a[i], b[i]);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean dominates(double[] a, double[] b) {
+        if (a[0] != b[0]) {
+            return a[0] < b[0];
+        }
+        boolean better = false;
+        for (int i = 1; i < a.length; i++) {
+            if (a[i] > b[i]) {
+                return false;
+            }
+            better |= a[i] < b[i];
+        }
+        return better;
+    }
+
+    /* Whether some solution of the front dominates key, the last ones being the likeliest. */
+    private boolean dominated(double[] key, List<Entry> front) {
+        for (int i = front.size() - 1; i >= 0; i--) {
+            if (dominates(front.get(i).key, key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* The first front holding none of the dominators of entry, possibly a new one. */
+    private int rank(Entry entry) {
+        int low = 0;
+        int high = fronts.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (dominated(entry.key, fronts.get(middle))) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public Ranking<S> computeRanking(List<S> solutionList) {
+        call++;
+        if (!incremental || !update(solutionList)) {
+            sort(solutionList);
+        }
+        subfronts = new ArrayList<>(fronts.size());
+        for (List<Entry> front : fronts) {
+            List<S> subfront = new ArrayList<>(front.size());
+            for (Entry entry : front) {
+                subfront.add(entry.solution);
+                setAttribute(entry.solution, entry.rank);
+            }
+            subfronts.add(subfront);
+        }
+        return this;
+    }
+
+    private void sort(List<S> solutionList) {
+        fronts.clear();
+        entries.clear();
+        List<Entry> sorted = new ArrayList<>(solutionList.size());
+        for (S solution : solutionList) {
+            sorted.add(new Entry(solution));
+        }
+        sorted.sort((a, b) -> compare(a.key, b.key));
+        for (Entry entry : sorted) {
+            int rank = rank(entry);
+            if (rank == fronts.size()) {
+                fronts.add(new ArrayList<>());
+            }
+            entry.rank = rank;
+            fronts.get(rank).add(entry);
+        }
+        if (incremental) {
+            for (Entry entry : sorted) {
+                entry.seen = call;
+                entries.put(entry.solution, entry);
+            }
+            /* The same solution twice would be kept once. */
+            if (entries.size() != sorted.size()) {
+                entries.clear();
+            }
+        }
+    }
+
+    /* Ranks the solutions from the fronts of the last call, if they are still valid. */
+    private boolean update(List<S> solutionList) {
+        if (entries.isEmpty()) {
+            return false;
+        }
+        List<Entry> added = new ArrayList<>();
+        int survivors = 0;
+        int lastSurvivor = -1;
+        for (S solution : solutionList) {
+            Entry entry = entries.get(solution);
+            if (entry == null) {
+                added.add(new Entry(solution));
+            } else if (entry.seen == call) {
+                return false;
+            } else {
+                entry.seen = call;
+                survivors++;
+                lastSurvivor = Math.max(lastSurvivor, entry.rank);
+            }
+        }
+        if (survivors < entries.size()) {
+            int firstDropped = Integer.MAX_VALUE;
+            for (Entry entry : entries.values()) {
+                if (entry.seen != call) {
+                    firstDropped = Math.min(firstDropped, entry.rank);
+                }
+            }
+            /*
+             * A dropped solution no longer pushes back the survivors it
+             * dominated, so they only keep their ranks if none ranks behind it.
+             */
+            if (lastSurvivor > firstDropped) {
+                return false;
+            }
+            entries.values().removeIf(entry -> entry.seen != call);
+            for (List<Entry> front : fronts) {
+                front.removeIf(entry -> entry.seen != call);
+            }
+            fronts.removeIf(List::isEmpty);
+        }
+        for (Entry entry : added) {
+            if (entries.putIfAbsent(entry.solution, entry) != null) {
+                return false;
+            }
+            entry.seen = call;
+            insert(entry);
+        }
+        return true;
+    }
+
+    /* Inserts an entry, and moves every solution it dominates down one front, recursively. */
+    private void insert(Entry entry) {
+        List<Entry> moving = new ArrayList<>();
+        moving.add(entry);
+        int rank = rank(entry);
+        while (!moving.isEmpty()) {
+            if (rank == fronts.size()) {
+                fronts.add(new ArrayList<>());
+            }
+            List<Entry> front = fronts.get(rank);
+            List<Entry> next = new ArrayList<>();
+            front.removeIf(member -> {
+                if (dominated(member.key, moving)) {
+                    next.add(member);
+                    return true;
+                }
+                return false;
+            });
+            for (Entry member : moving) {
+                member.rank = rank;
+                front.add(member);
+            }
+            moving.clear();
+            moving.addAll(next);
+            rank++;
+        }
+    }
+
+    @Override
+    public List<S> getSubfront(int rank) {
+        if (rank >= subfronts.size()) {
+            throw new IllegalArgumentException("Invalid rank: " + rank + ". Max rank = " + (subfronts.size() - 1));
+        }
+        return subfronts.get(rank);
+    }
+
+    @Override
+    public int getNumberOfSubfronts() {
+        return subfronts.size();
+    }
+
+    /**
+     * @return the attribute of DominanceRanking, rather than one of its own
+     */
+    @Override
+    public Object getAttributeID() {
+        return DominanceRanking.class;
+    }
+}
@@ -0,0 +1,270 @@
+package org.gsd;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Hypervolume of minimized fronts, with the same conventions as jMetal's
+ * Hypervolume: every coordinate is clamped to [0, 1] and the reference point
+ * is (1, ..., 1), so fronts should be normalized first. Internally the points
+ * are flipped to 1 - x and the volume they dominate from the origin is
+ * computed directly in 1 and 2 dimensions, by sweeping a 2D staircase in 3
+ * dimensions, and by WFG slicing down to 3 dimensions above that.
+ *
+ * @author jimmy
+ */
+public class FastHypervolume {
+
+    public static double exact(double[][] front) {
+        double[][] points = flip(front);
+        if (points.length == 0) {
+            return 0;
+        }
+        int dimensions = points[0].length;
+        return hypervolume(nonDominated(points, points.length, dimensions), dimensions);
+    }
+
+    /**
+     * Estimates the hypervolume by sampling the bounding box of the front.
+     * The number of samples follows from Hoeffding's inequality.
+     *
+     * @param error the largest absolute error
+     * @param confidence the probability that the estimate is within error
+     */
+    public static double estimate(double[][] front, double error, double confidence, Random random) {
+        if (error <= 0 || confidence <= 0 || confidence >= 1) {
+            throw new IllegalArgumentException();
+        }
+        double[][] points = flip(front);
+        if (points.length == 0) {
+            return 0;
+        }
+        int dimensions = points[0].length;
+        points = nonDominated(points, points.length, dimensions);
+
+        double[] box = new double[dimensions];
+        for (double[] point : points) {
+            for (int k = 0; k < dimensions; k++) {
+                box[k] = Math.max(box[k], point[k]);
+            }
+        }
+        double boxVolume = product(box, dimensions);
+        double fractionError = error / boxVolume;
+        if (fractionError >= 1) {
+            return boxVolume / 2;
+        }
+        long samples = (long) Math.ceil(Math.log(2 / (1 - confidence)) / (2 * fractionError * fractionError));
+
+        /* Large boxes first, so that most hits are found early in the scan. */
+        Arrays.sort(points, Comparator.comparingDouble((double[] point) -> -product(point, dimensions)));
+        double[] sample = new double[dimensions];
+        long hits = 0;
+        for (long s = 0; s < samples; s++) {
+            for (int k = 0; k < dimensions; k++) {
+                sample[k] = random.nextDouble() * box[k];
+            }
+            for (double[] point : points) {
+                if (covers(point, sample, dimensions)) {
+                    hits++;
+                    break;
+                }
+            }
+        }
+        return boxVolume * hits / samples;
+    }
+
+    private static double[][] flip(double[][] front) {
+        double[][] points = new double[front.length][];
+        int size = 0;
+        for (double[] point : front) {
+            double[] flipped = new double[point.length];
+            boolean empty = false;
+            for (int k = 0; k < point.length; k++) {
+                flipped[k] = 1 - Math.min(1, Math.max(0, point[k]));
+                empty |= flipped[k] == 0;
+            }
+            /* Boxes with no volume do not change the union. */
+            if (!empty) {
+                points[size++] = flipped;
+            }
+        }
+        return Arrays.copyOf(points, size);
+    }
+
+    private static double product(double[] point, int dimensions) {
+        double product = 1;
+        for (int k = 0; k < dimensions; k++) {
+            product *= point[k];
+        }
+        return product;
+    }
+
+    private static boolean covers(double[] a, double[] b, int dimensions) {
+        for (int k = 0; k < dimensions; k++) {
+            if (a[k] < b[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Once sorted by decreasing sum, a point can only be weakly dominated by
+     * the points before it.
+     */
+    private static double[][] nonDominated(double[][] points, int size, int dimensions) {
+        double[][] sorted = Arrays.copyOf(points, size);
+        double[] sums = new double[size];
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+            for (int k = 0; k < dimensions; k++) {
+                sums[i] += points[i][k];
+            }
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(sums[b], sums[a]));
+        int kept = 0;
+        for (int i : order) {
+            double[] point = points[i];
+            boolean dominated = false;
+            for (int j = 0; j < kept && !dominated; j++) {
+                dominated = covers(sorted[j], point, dimensions);
+            }
+            if (!dominated) {
+                sorted[kept++] = point;
+            }
+        }
+        return Arrays.copyOf(sorted, kept);
+    }
+
+    /**
+     * Volume dominated from the origin by the points, in their first
+     * dimensions coordinates.
+     */
+    private static double hypervolume(double[][] points, int dimensions) {
+        switch (dimensions) {
+            case 1:
+                double max = 0;
+                for (double[] point : points) {
+                    max = Math.max(max, point[0]);
+                }
+                return max;
+            case 2:
+                return hypervolume2(points);
+            case 3:
+                return hypervolume3(points);
+            default:
+                return wfg(points, dimensions);
+        }
+    }
+
+    private static double hypervolume2(double[][] points) {
+        double[][] sorted = points.clone();
+        Arrays.sort(sorted, (a, b) -> Double.compare(b[0], a[0]));
+        double volume = 0;
+        double height = 0;
+        for (double[] point : sorted) {
+            if (point[1] > height) {
+                volume += point[0] * (point[1] - height);
+                height = point[1];
+            }
+        }
+        return volume;
+    }
+
+    /*
+     * Sweeps the third dimension downwards, keeping the non-dominated
+     * projections as a staircase in two arrays, x increasing and y decreasing,
+     * along with the area below it.
+     */
+    private static double hypervolume3(double[][] points) {
+        double[][] sorted = points.clone();
+        Arrays.sort(sorted, (a, b) -> Double.compare(b[2], a[2]));
+        int n = sorted.length;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        int size = 0;
+        double area = 0;
+        double volume = 0;
+        for (int i = 0; i < n; i++) {
+            double x = sorted[i][0];
+            double y = sorted[i][1];
+            int right = upperBound(xs, size, x);
+            int first = right > 0 && xs[right - 1] == x ? right - 1 : right;
+            if (first == size || ys[first] < y) {
+                /* The steps in [left, right) are dominated by (x, y). */
+                int left = right;
+                while (left > 0 && ys[left - 1] <= y) {
+                    left--;
+                }
+                double t = left > 0 ? xs[left - 1] : 0;
+                for (int j = left; j < right; j++) {
+                    area += (xs[j] - t) * (y - ys[j]);
+                    t = xs[j];
+                }
+                area += (x - t) * (y - (right < size ? ys[right] : 0));
+
+                int removed = right - left;
+                if (removed != 1) {
+                    System.arraycopy(xs, right, xs, left + 1, size - right);
+                    System.arraycopy(ys, right, ys, left + 1, size - right);
+                }
+                xs[left] = x;
+                ys[left] = y;
+                size += 1 - removed;
+            }
+            double next = i + 1 < n ? sorted[i + 1][2] : 0;
+            volume += area * (sorted[i][2] - next);
+        }
+        return volume;
+    }
+
+    /**
+     * @return the index of the first element of xs[0, size) greater than x
+     */
+    private static int upperBound(double[] xs, int size, double x) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (xs[middle] <= x) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /*
+     * Slices along the last dimension. Sorted by increasing last coordinate,
+     * each point owns the slab below it of the volume it dominates exclusively
+     * from the points after it, in one dimension less. That exclusive volume
+     * is its own box minus the volume of the later points limited to the box.
+     */
+    private static double wfg(double[][] points, int dimensions) {
+        int last = dimensions - 1;
+        double[][] sorted = points.clone();
+        Arrays.sort(sorted, (a, b) -> Double.compare(a[last], b[last]));
+        double[][] limited = new double[sorted.length][];
+        double volume = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            double[] point = sorted[i];
+            double exclusive = product(point, last);
+            if (i + 1 < sorted.length) {
+                int size = 0;
+                for (int j = i + 1; j < sorted.length; j++) {
+                    double[] limit = new double[last];
+                    for (int k = 0; k < last; k++) {
+                        limit[k] = Math.min(point[k], sorted[j][k]);
+                    }
+                    limited[size++] = limit;
+                }
+                exclusive -= hypervolume(nonDominated(limited, size, last), last);
+            }
+            volume += point[last] * exclusive;
+        }
+        return volume;
+    }
+}
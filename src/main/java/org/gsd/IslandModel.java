@@ -0,0 +1,171 @@
+package org.gsd;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import org.uma.jmetal.algorithm.Algorithm;
+import org.uma.jmetal.problem.Problem;
+import org.uma.jmetal.solution.BinarySolution;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+import org.uma.jmetal.util.evaluator.impl.SequentialSolutionListEvaluator;
+import org.uma.jmetal.util.pseudorandom.JMetalRandom;
+import org.uma.jmetal.util.solutionattribute.impl.NumberOfViolatedConstraints;
+
+/**
+ * Runs one metaheuristic per island, each on its own thread and seed, and
+ * migrates non-dominated solutions around the ring of islands. The islands
+ * are reproducible once ThreadLocalGenerator is installed.
+ *
+ * Every island is built around its own evaluator, which also carries out
+ * the migration, so any of the builders of KnapsackRunner runs unchanged.
+ * The evaluator archives the feasible solutions it evaluates. Every interval
+ * evaluations it sends copies of a few archived solutions to the inbox of the
+ * next island, a lock-free queue, and it replaces the last solutions it has
+ * just evaluated with those waiting in its own inbox. The result is the
+ * non-dominated front of all the archives.
+ *
+ * @author jimmy
+ */
+public class IslandModel implements Algorithm<List<BinarySolution>> {
+
+    private final KnapsackProblem problem;
+    private final long seed;
+    private final int interval;
+    private final int migrants;
+    private final List<Island> islands = new ArrayList<>();
+    private List<BinarySolution> result;
+
+    /**
+     * @param islands the number of islands and threads
+     * @param seed the seed of the first island, the next ones taking the next
+     * seeds
+     * @param interval the evaluations of an island between two migrations
+     * @param migrants the solutions sent at every migration
+     * @param builder builds the algorithm of an island around its evaluator
+     */
+    public IslandModel(KnapsackProblem problem, int islands, long seed, int interval, int migrants,
+            Function<SolutionListEvaluator<BinarySolution>, Algorithm<List<BinarySolution>>> builder) {
+        if (islands < 1 || interval < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.problem = problem;
+        this.seed = seed;
+        this.interval = interval;
+        this.migrants = migrants;
+        for (int k = 0; k < islands; k++) {
+            this.islands.add(new Island());
+        }
+        for (int k = 0; k < islands; k++) {
+            Island island = this.islands.get(k);
+            island.next = this.islands.get((k + 1) % islands);
+            island.algorithm = builder.apply(island);
+        }
+    }
+
+    /* The maximized energies of a solution. */
+    private static int[] point(BinarySolution solution) {
+        int[] point = new int[solution.getNumberOfObjectives()];
+        for (int i = 0; i < point.length; i++) {
+            point[i] = -(int) solution.getObjective(i);
+        }
+        return point;
+    }
+
+    @Override
+    public void run() {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int k = 0; k < islands.size(); k++) {
+            Island island = islands.get(k);
+            long islandSeed = seed + k;
+            tasks.add(() -> {
+                JMetalRandom.getInstance().setSeed(islandSeed);
+                island.algorithm.run();
+                return null;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(islands.size());
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ParetoArchive<BinarySolution> merged = new ParetoArchive<>(problem.getNumberOfObjectives());
+        for (Island island : islands) {
+            for (BinarySolution solution : island.archive.getValues()) {
+                merged.add(point(solution), solution);
+            }
+        }
+        result = merged.getValues();
+    }
+
+    @Override
+    public List<BinarySolution> getResult() {
+        return result;
+    }
+
+    private class Island implements SolutionListEvaluator<BinarySolution> {
+
+        private final SolutionListEvaluator<BinarySolution> evaluator = new SequentialSolutionListEvaluator<>();
+        private final NumberOfViolatedConstraints<BinarySolution> numberOfViolatedConstraints = new NumberOfViolatedConstraints<>();
+        private final ParetoArchive<BinarySolution> archive = new ParetoArchive<>(problem.getNumberOfObjectives());
+        private final Queue<BinarySolution> inbox = new ConcurrentLinkedQueue<>();
+        private Island next;
+        private Algorithm<List<BinarySolution>> algorithm;
+        private long evaluations = 0;
+
+        @Override
+        public List<BinarySolution> evaluate(List<BinarySolution> solutionList, Problem<BinarySolution> problem) {
+            List<BinarySolution> evaluated = evaluator.evaluate(solutionList, problem);
+            Integer zero = 0;
+            for (BinarySolution solution : evaluated) {
+                if (zero.equals(numberOfViolatedConstraints.getAttribute(solution))) {
+                    archive.add(point(solution), solution);
+                }
+            }
+            /* The immigrants are evaluated already, they take the place of the last offspring. */
+            int i = evaluated.size();
+            BinarySolution immigrant;
+            while (i > 0 && (immigrant = inbox.poll()) != null) {
+                evaluated.set(--i, immigrant);
+            }
+            long before = evaluations;
+            evaluations += solutionList.size();
+            if (evaluations / interval != before / interval) {
+                emigrate();
+            }
+            return evaluated;
+        }
+
+        private void emigrate() {
+            List<BinarySolution> front = archive.getValues();
+            JMetalRandom random = JMetalRandom.getInstance();
+            /* A slow neighbour is not flooded, it gets the newest migrants only. */
+            for (int m = 0; m < migrants && !front.isEmpty(); m++) {
+                next.inbox.add((BinarySolution) front.get(random.nextInt(0, front.size() - 1)).copy());
+            }
+            while (next.inbox.size() > migrants) {
+                next.inbox.poll();
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            evaluator.shutdown();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package org.gsd;
+
+/**
+ * A static KD-tree over a set of points, answering nearest neighbour queries
+ * under the Euclidean distance and under the dominance distance of IGD+. The
+ * tree is laid out implicitly in one index array, the median of every range
+ * being its root. Its shape only depends on the order of the coordinates in
+ * each dimension, so it can be queried with the coordinates of any increasing
+ * rescaling of the points, like those of FrontNormalizer, without rebuilding.
+ *
+ * @author jimmy
+ */
+public class KdTree {
+
+    private final int dimensions;
+    private final int[] nodes;
+
+    public KdTree(double[][] points) {
+        this.dimensions = points.length == 0 ? 0 : points[0].length;
+        this.nodes = new int[points.length];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = i;
+        }
+        build(points, 0, nodes.length, 0);
+    }
+
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * @param points the points of the tree, possibly rescaled
+     * @return the Euclidean distance from query to the closest point
+     */
+    public double nearest(double[][] points, double[] query) {
+        checkSize(points);
+        return Math.sqrt(nearest(points, query, 0, nodes.length, 0, Double.POSITIVE_INFINITY));
+    }
+
+    /**
+     * @param points the points of the tree, possibly rescaled
+     * @return the smallest dominance distance from query to a point, ie. the
+     * Euclidean norm of how much worse the point is than query in the
+     * dimensions it is worse, minimizing
+     */
+    public double nearestDominance(double[][] points, double[] query) {
+        checkSize(points);
+        double[] gaps = new double[dimensions];
+        return Math.sqrt(nearestDominance(points, query, 0, nodes.length, 0, 0, gaps, Double.POSITIVE_INFINITY));
+    }
+
+    private void checkSize(double[][] points) {
+        if (points.length != nodes.length || nodes.length == 0) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    private void build(double[][] points, int from, int to, int depth) {
+        if (to - from <= 1) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        select(points, from, to - 1, middle, depth % dimensions);
+        build(points, from, middle, depth + 1);
+        build(points, middle + 1, to, depth + 1);
+    }
+
+    /*
+     * Quickselect: afterwards nodes[k] holds the point of rank k in the
+     * dimension, those in [low, k) are smaller or equal and those in (k, high]
+     * greater or equal.
+     */
+    private void select(double[][] points, int low, int high, int k, int dimension) {
+        while (low < high) {
+            double pivot = points[nodes[(low + high) >>> 1]][dimension];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (points[nodes[i]][dimension] < pivot) {
+                    i++;
+                }
+                while (points[nodes[j]][dimension] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = nodes[i];
+                    nodes[i] = nodes[j];
+                    nodes[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                high = j;
+            } else if (k >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private double nearest(double[][] points, double[] query, int from, int to, int depth, double best) {
+        if (from >= to) {
+            return best;
+        }
+        int middle = (from + to) >>> 1;
+        double[] point = points[nodes[middle]];
+        double distance = 0;
+        for (int k = 0; k < dimensions; k++) {
+            double difference = query[k] - point[k];
+            distance += difference * difference;
+        }
+        best = Math.min(best, distance);
+
+        int dimension = depth % dimensions;
+        double difference = query[dimension] - point[dimension];
+        if (difference < 0) {
+            best = nearest(points, query, from, middle, depth + 1, best);
+            if (difference * difference < best) {
+                best = nearest(points, query, middle + 1, to, depth + 1, best);
+            }
+        } else {
+            best = nearest(points, query, middle + 1, to, depth + 1, best);
+            if (difference * difference < best) {
+                best = nearest(points, query, from, middle, depth + 1, best);
+            }
+        }
+        return best;
+    }
+
+    /*
+     * Points after the median are at least as large in the split dimension,
+     * so at least that much worse than query there. gaps holds these squared
+     * lower bounds per dimension along the path and bound their sum. Points
+     * before the median are not bounded by the split.
+     */
+    private double nearestDominance(double[][] points, double[] query, int from, int to, int depth,
+            double bound, double[] gaps, double best) {
+        if (from >= to || bound >= best) {
+            return best;
+        }
+        int middle = (from + to) >>> 1;
+        double[] point = points[nodes[middle]];
+        double distance = 0;
+        for (int k = 0; k < dimensions; k++) {
+            double gap = Math.max(point[k] - query[k], 0);
+            distance += gap * gap;
+        }
+        best = Math.min(best, distance);
+        if (best == 0) {
+            return 0;
+        }
+
+        int dimension = depth % dimensions;
+        best = nearestDominance(points, query, from, middle, depth + 1, bound, gaps, best);
+        double gap = Math.max(point[dimension] - query[dimension], 0);
+        double previous = gaps[dimension];
+        if (gap * gap > previous) {
+            gaps[dimension] = gap * gap;
+            best = nearestDominance(points, query, middle + 1, to, depth + 1, bound - previous + gap * gap, gaps, best);
+            gaps[dimension] = previous;
+        } else {
+            best = nearestDominance(points, query, middle + 1, to, depth + 1, bound, gaps, best);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,34 @@
+package org.gsd;
+
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.VF;
+
+/**
+ * A multi-objective knapsack: the total weight and total energies are the
+ * sums over the items taken, or their copies when the occurences count them.
+ * Replaces one ICF.knapsack per objective, the sums being kept by a single
+ * PropMultiKnapsack and bounded by PropKnapsackBound, both over all the
+ * objectives at once.
+ *
+ * @author jimmy
+ */
+public class KnapsackConstraint extends Constraint {
+
+    /* The values of a domain held in one word of its bitset. */
+    private static final int WORD = 64;
+
+    public KnapsackConstraint(IntVar[] occurences, IntVar totalWeight, IntVar[] totalEnergies, int[] weights, int[][] energies) {
+        super("Knapsack",
+                new PropMultiKnapsack(occurences, totalWeight, totalEnergies, weights, energies),
+                new PropKnapsackBound(occurences, totalWeight, totalEnergies, weights, energies));
+    }
+
+    /**
+     * Enumerated up to 64 values, bounded beyond.
+     */
+    public static IntVar sum(String name, int max, Solver solver) {
+        return max < WORD ? VF.enumerated(name, 0, max, solver) : VF.bounded(name, 0, max, solver);
+    }
+}
@@ -0,0 +1,261 @@
+package org.gsd;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Loads knapsack instances. The text format is the objectives, items and
+ * capacity on their own lines, then the energies as [[...], ...] and the
+ * weights as [...]. It is parsed straight from the mapped file, digit by
+ * digit. A load asked to cache also writes a binary cache next to the file,
+ * the file name followed by .bin, which later such loads map instead of
+ * parsing as long as the file keeps the size and modification time recorded
+ * in the cache. The cache is a header of magic, version, the size and the
+ * modification time of the file in milliseconds as two longs, objectives,
+ * items and capacity, followed by the weights and the energies objective
+ * after objective, all little endian. A cache written for no file records
+ * zeros.
+ *
+ * @author jimmy
+ */
+public class KnapsackLoader {
+
+    public static final String CACHE_SUFFIX = ".bin";
+
+    private static final int MAGIC = 0x4b505331;
+    private static final int VERSION = 2;
+    private static final int HEADER = 9;
+
+    /**
+     * Loads without touching any cache.
+     *
+     * @param path a text instance, or a binary cache
+     */
+    public static KnapsackProblem load(Path path) throws IOException {
+        return load(path, false);
+    }
+
+    /**
+     * @param path a text instance, or a binary cache
+     * @param cache whether to map the cache of a text instance, and to write
+     * it when missing or stale
+     */
+    public static KnapsackProblem load(Path path, boolean cache) throws IOException {
+        /* Recorded before parsing, so that a file changed meanwhile leaves a stale cache. */
+        long size = Files.size(path);
+        long modified = Files.getLastModifiedTime(path).toMillis();
+        ByteBuffer buffer = map(path);
+        if (isCache(buffer)) {
+            return read(buffer);
+        }
+        if (!cache) {
+            return parse(buffer);
+        }
+        Path cachePath = path.resolveSibling(path.getFileName() + CACHE_SUFFIX);
+        if (Files.isRegularFile(cachePath)) {
+            try {
+                ByteBuffer cached = map(cachePath);
+                LongBuffer source = cached.duplicate().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+                if (source.remaining() >= 3 && source.get(1) == size && source.get(2) == modified) {
+                    return read(cached);
+                }
+            } catch (IOException e) {
+                /* Corrupt or from another version, rewritten below. */
+            }
+        }
+        KnapsackProblem problem = parse(buffer);
+        try {
+            write(encode(problem, size, modified), cachePath);
+        } catch (IOException e) {
+            /* Read-only directory, the file is parsed again next time. */
+        }
+        return problem;
+    }
+
+    private static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private static boolean isCache(ByteBuffer buffer) {
+        return buffer.remaining() >= 4
+                && buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN).getInt(buffer.position()) == MAGIC;
+    }
+
+    /**
+     * Parses the text format from the position of the buffer to its limit.
+     */
+    public static KnapsackProblem parse(ByteBuffer buffer) throws IOException {
+        Parser parser = new Parser(buffer);
+        int objectives = parser.nextUnsigned();
+        int items = parser.nextUnsigned();
+        int capacity = parser.nextUnsigned();
+
+        int[][] energies = new int[objectives][];
+        parser.expect('[');
+        for (int i = 0; i < objectives; i++) {
+            if (i > 0) {
+                parser.expect(',');
+            }
+            energies[i] = parser.nextArray(items);
+        }
+        parser.expect(']');
+
+        int[] weights = parser.nextArray(items);
+        return new KnapsackProblem(capacity, weights, energies);
+    }
+
+    /**
+     * Reads the binary cache from the position of the buffer.
+     */
+    public static KnapsackProblem read(ByteBuffer buffer) throws IOException {
+        IntBuffer ints = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        if (ints.remaining() < HEADER || ints.get(0) != MAGIC || ints.get(1) != VERSION) {
+            throw new IOException("Not a knapsack cache");
+        }
+        int objectives = ints.get(6);
+        int items = ints.get(7);
+        int capacity = ints.get(8);
+        if (objectives < 0 || items < 0
+                || ints.remaining() - HEADER != (long) (objectives + 1) * items) {
+            throw new IOException("Truncated knapsack cache");
+        }
+        ints.position(HEADER);
+        int[] weights = new int[items];
+        ints.get(weights);
+        int[][] energies = new int[objectives][items];
+        for (int[] energy : energies) {
+            ints.get(energy);
+        }
+        return new KnapsackProblem(capacity, weights, energies);
+    }
+
+    public static ByteBuffer encode(KnapsackProblem problem) {
+        return encode(problem, 0, 0);
+    }
+
+    private static ByteBuffer encode(KnapsackProblem problem, long size, long modified) {
+        int[] weights = problem.getWeights();
+        int[][] energies = problem.getEnergies();
+        ByteBuffer buffer = ByteBuffer.allocate(4 * (HEADER + (energies.length + 1) * weights.length))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(size).putLong(modified);
+        IntBuffer ints = buffer.asIntBuffer();
+        ints.put(energies.length).put(weights.length).put(problem.getCapacity());
+        ints.put(weights);
+        for (int[] energy : energies) {
+            ints.put(energy);
+        }
+        buffer.rewind();
+        return buffer;
+    }
+
+    /**
+     * Writes the binary cache through a temporary file moved in place, so
+     * that concurrent loads never map a partial cache.
+     */
+    public static void write(KnapsackProblem problem, Path path) throws IOException {
+        write(encode(problem), path);
+    }
+
+    private static void write(ByteBuffer buffer, Path path) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /*
+     * Reads through the buffer with absolute gets, accumulating the digits of
+     * every number into an int.
+     */
+    private static class Parser {
+
+        private final ByteBuffer buffer;
+        private final int limit;
+        private int position;
+
+        Parser(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.limit = buffer.limit();
+            this.position = buffer.position();
+        }
+
+        private int skipWhitespace() {
+            while (position < limit) {
+                int c = buffer.get(position);
+                if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                    return c;
+                }
+                position++;
+            }
+            return -1;
+        }
+
+        void expect(char expected) throws IOException {
+            int c = skipWhitespace();
+            if (c != expected) {
+                throw error("Expected " + expected);
+            }
+            position++;
+        }
+
+        int nextUnsigned() throws IOException {
+            int c = skipWhitespace();
+            if (c < '0' || c > '9') {
+                throw error("Expected a number");
+            }
+            long value = 0;
+            while (position < limit && (c = buffer.get(position)) >= '0' && c <= '9') {
+                value = value * 10 + c - '0';
+                if (value > Integer.MAX_VALUE) {
+                    throw error("Number too large");
+                }
+                position++;
+            }
+            return (int) value;
+        }
+
+        int nextInt() throws IOException {
+            if (skipWhitespace() == '-') {
+                position++;
+                return -nextUnsigned();
+            }
+            return nextUnsigned();
+        }
+
+        int[] nextArray(int length) throws IOException {
+            int[] array = new int[length];
+            expect('[');
+            for (int i = 0; i < length; i++) {
+                if (i > 0) {
+                    expect(',');
+                }
+                array[i] = nextInt();
+            }
+            expect(']');
+            return array;
+        }
+
+        private IOException error(String message) {
+            return new IOException(message + " at byte " + position);
+        }
+    }
+}
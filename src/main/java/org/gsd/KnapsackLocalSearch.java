@@ -0,0 +1,91 @@
+package org.gsd;
+
+import java.util.BitSet;
+import org.uma.jmetal.operator.LocalSearchOperator;
+import org.uma.jmetal.solution.BinarySolution;
+import org.uma.jmetal.util.comparator.DominanceComparator;
+import org.uma.jmetal.util.pseudorandom.JMetalRandom;
+
+/**
+ * Makes a solution feasible by dropping random items, then adds random items
+ * for as long as they fit. Every item added improves every objective, so the
+ * result is a maximal knapsack. Each move is a single delta evaluation.
+ *
+ * @author jimmy
+ */
+public class KnapsackLocalSearch implements LocalSearchOperator<BinarySolution> {
+
+    private final KnapsackProblem problem;
+    private final int[] order;
+    private final DominanceComparator<BinarySolution> dominanceComparator = new DominanceComparator<>();
+    private int evaluations = 0;
+    private int improvements = 0;
+    private int nonComparable = 0;
+
+    public KnapsackLocalSearch(KnapsackProblem problem) {
+        this.problem = problem;
+        this.order = new int[problem.getNumberOfObjects()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+    }
+
+    @Override
+    public BinarySolution execute(BinarySolution solution) {
+        BinarySolution result = (BinarySolution) solution.copy();
+        BitSet items = result.getVariableValue(0);
+        int[] weights = problem.getWeights();
+        int capacity = problem.getCapacity();
+
+        shuffle();
+        int weight = problem.getTotalWeight(result);
+        for (int i = 0; i < order.length && weight > capacity; i++) {
+            if (items.get(order[i])) {
+                problem.flip(result, order[i]);
+                weight -= weights[order[i]];
+                evaluations++;
+            }
+        }
+        shuffle();
+        for (int i = 0; i < order.length; i++) {
+            if (!items.get(order[i]) && weight + weights[order[i]] <= capacity) {
+                problem.flip(result, order[i]);
+                weight += weights[order[i]];
+                evaluations++;
+            }
+        }
+
+        int flag = dominanceComparator.compare(result, solution);
+        if (flag < 0) {
+            improvements++;
+        } else if (flag == 0) {
+            nonComparable++;
+        }
+        return result;
+    }
+
+    private void shuffle() {
+        JMetalRandom random = JMetalRandom.getInstance();
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(0, i);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+    }
+
+    @Override
+    public int getEvaluations() {
+        return evaluations;
+    }
+
+    @Override
+    public int getNumberOfImprovements() {
+        return improvements;
+    }
+
+    @Override
+    public int getNumberOfNonComparableSolutions() {
+        return nonComparable;
+    }
+}
@@ -0,0 +1,185 @@
+package org.gsd;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Removes or fixes the items of a knapsack that cannot change its Pareto
+ * front, before it is searched.
+ *
+ * @author jimmy
+ */
+public class KnapsackPresolver {
+
+    private final KnapsackProblem original;
+    private final KnapsackProblem reduced;
+    /* The original item of every item of the reduced problem. */
+    private final int[] items;
+    /* The original items taken in every solution, and their total energies. */
+    private final BitSet fixed = new BitSet();
+    private final int[] offset;
+
+    public KnapsackPresolver(KnapsackProblem problem) {
+        this.original = problem;
+        int n = problem.getNumberOfObjects();
+        int objectives = problem.getNumberOfObjectives();
+        int capacity = problem.getCapacity();
+        int[] weights = problem.getWeights();
+        int[][] energies = problem.getEnergies();
+
+        /* No energy is negative, so an item gaining nothing is never worth taking. */
+        BitSet candidates = new BitSet(n);
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            if (weights[i] <= capacity && !zero(energies, i)) {
+                candidates.set(i);
+                total += weights[i];
+            }
+        }
+        /*
+         * Taking an item that gains something and always fits dominates not
+         * taking it.
+         */
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (total <= capacity || weights[i] == 0) {
+                fixed.set(i);
+            }
+        }
+        candidates.andNot(fixed);
+        int room = capacity - weight(weights, fixed);
+
+        /*
+         * An efficient solution taking an item also takes the items
+         * dominating it, or swapping them in would be at least as good. Ties
+         * are broken by index so that one of two equal items comes first.
+         */
+        List<Integer> kept = new ArrayList<>();
+        for (int j = candidates.nextSetBit(0); j >= 0; j = candidates.nextSetBit(j + 1)) {
+            long weight = weights[j];
+            for (int i = candidates.nextSetBit(0); i >= 0 && weight <= room; i = candidates.nextSetBit(i + 1)) {
+                if (i != j && dominates(weights, energies, i, j)) {
+                    weight += weights[i];
+                }
+            }
+            if (weight <= room) {
+                kept.add(j);
+            }
+        }
+        /* jMetal needs at least one bit, giving back an item is always safe. */
+        if (kept.isEmpty() && n > 0) {
+            if (fixed.get(0)) {
+                fixed.clear(0);
+                room += weights[0];
+            }
+            kept.add(0);
+        }
+
+        this.items = kept.stream().mapToInt(Integer::intValue).toArray();
+        int[] reducedWeights = new int[items.length];
+        int[][] reducedEnergies = new int[objectives][items.length];
+        for (int i = 0; i < items.length; i++) {
+            reducedWeights[i] = weights[items[i]];
+            for (int k = 0; k < objectives; k++) {
+                reducedEnergies[k][i] = energies[k][items[i]];
+            }
+        }
+        this.reduced = new KnapsackProblem(room, reducedWeights, reducedEnergies);
+        this.offset = new int[objectives];
+        for (int i = fixed.nextSetBit(0); i >= 0; i = fixed.nextSetBit(i + 1)) {
+            for (int k = 0; k < objectives; k++) {
+                offset[k] += energies[k][i];
+            }
+        }
+    }
+
+    private static boolean zero(int[][] energies, int item) {
+        for (int[] energy : energies) {
+            if (energy[item] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int weight(int[] weights, BitSet items) {
+        int weight = 0;
+        for (int i = items.nextSetBit(0); i >= 0; i = items.nextSetBit(i + 1)) {
+            weight += weights[i];
+        }
+        return weight;
+    }
+
+    /* Whether i is at most as heavy as j with at least as much energy, and comes first. */
+    private static boolean dominates(int[] weights, int[][] energies, int i, int j) {
+        boolean strict = weights[i] < weights[j];
+        for (int[] energy : energies) {
+            if (energy[i] < energy[j]) {
+                return false;
+            }
+            strict |= energy[i] > energy[j];
+        }
+        return weights[i] <= weights[j] && (strict || i < j);
+    }
+
+    public KnapsackProblem getOriginal() {
+        return original;
+    }
+
+    public KnapsackProblem getReduced() {
+        return reduced;
+    }
+
+    /**
+     * @return the original item of every item of the reduced problem
+     */
+    public int[] getItems() {
+        return items;
+    }
+
+    /**
+     * @return a maximized point of the reduced problem as a point of the
+     * original one
+     */
+    public int[] restore(int[] point) {
+        int[] restored = new int[point.length];
+        for (int k = 0; k < point.length; k++) {
+            restored[k] = point[k] + offset[k];
+        }
+        return restored;
+    }
+
+    /**
+     * @return the items of a solution of the reduced problem as items of the
+     * original one
+     */
+    public BitSet restore(BitSet selected) {
+        BitSet restored = (BitSet) fixed.clone();
+        for (int i = selected.nextSetBit(0); i >= 0 && i < items.length; i = selected.nextSetBit(i + 1)) {
+            restored.set(items[i]);
+        }
+        return restored;
+    }
+
+    /**
+     * @return a listener of the reduced problem notifying the given one of
+     * the original points, or null
+     */
+    public ParetoListener restore(ParetoListener listener) {
+        if (listener == null) {
+            return null;
+        }
+        return new ParetoListener() {
+
+            @Override
+            public void added(int[] point) {
+                listener.added(restore(point));
+            }
+
+            @Override
+            public void removed(int[] point) {
+                listener.removed(restore(point));
+            }
+        };
+    }
+}
@@ -1,8 +1,5 @@
 package org.gsd;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.Reader;
 import java.util.Arrays;
 import java.util.BitSet;
 import org.uma.jmetal.problem.ConstrainedProblem;
@@ -17,81 +14,6 @@ import org.uma.jmetal.util.solutionattribute.impl.OverallConstraintViolation;
  */
 public class KnapsackProblem extends AbstractBinaryProblem implements ConstrainedProblem<BinarySolution> {
 
-    private static int[] parse1dArray(Reader in) throws IOException {
-        int c;
-        while (Character.isWhitespace(c = in.read())) {
-        }
-        if (c != '[') {
-            throw new IOException();
-        }
-        int[] array = new int[4];
-        int size = 0;
-
-        StringBuilder item = new StringBuilder();
-        while (true) {
-            c = in.read();
-            if (c == ',' || c == ']') {
-                if (size == array.length) {
-                    array = Arrays.copyOf(array, array.length * 2);
-                }
-                array[size++] = Integer.parseInt(item.toString());
-                if (c == ']') {
-                    return Arrays.copyOf(array, size);
-                }
-                item.setLength(0);
-            } else if (!Character.isWhitespace(c)) {
-                item.append((char) c);
-            }
-        }
-    }
-
-    private static int[][] parse2dArray(Reader in) throws IOException {
-        int c;
-        while (Character.isWhitespace(c = in.read())) {
-        }
-        if (c != '[') {
-            throw new IOException();
-        }
-        int[][] array = new int[4][];
-        int size = 0;
-
-        array[size++] = parse1dArray(in);
-        while ((c = in.read()) != ']') {
-            if (c == ',') {
-                if (size == array.length) {
-                    array = Arrays.copyOf(array, array.length * 2);
-                }
-                array[size++] = parse1dArray(in);
-            } else if (!Character.isWhitespace(c)) {
-                throw new Error("Unknown character: " + (char) c);
-            }
-        }
-        return Arrays.copyOf(array, size);
-    }
-
-    public static KnapsackProblem parseKnapsack(BufferedReader in) throws IOException {
-        int objectives = Integer.parseUnsignedInt(in.readLine());
-        int objects = Integer.parseUnsignedInt(in.readLine());
-        int capacity = Integer.parseUnsignedInt(in.readLine());
-
-        int[][] energies = parse2dArray(in);
-        if (energies.length != objectives) {
-            throw new IOException();
-        }
-        for (int[] energy : energies) {
-            if (energy.length != objects) {
-                throw new IOException();
-            }
-        }
-
-        int[] weights = parse1dArray(in);
-        if (weights.length != objects) {
-            throw new IOException();
-        }
-
-        return new KnapsackProblem(capacity, weights, energies);
-    }
-
     private final OverallConstraintViolation<BinarySolution> overallConstraintViolationDegree
             = new OverallConstraintViolation<>();
     private final NumberOfViolatedConstraints<BinarySolution> numberOfViolatedConstraints
@@ -100,6 +22,12 @@ public class KnapsackProblem extends AbstractBinaryProblem implements Constraine
     private final int capacity;
     private final int[] weights;
     private final int[][] energies;
+    /*
+     * The weight and energies of every item, item after item, so that adding
+     * an item reads one contiguous stride instead of one row per objective.
+     */
+    private final int stride;
+    private final int[] columns;
 
     public KnapsackProblem(int capacity, int[] weights, int[][] energies) {
         this.capacity = capacity;
@@ -110,6 +38,14 @@ public class KnapsackProblem extends AbstractBinaryProblem implements Constraine
                 throw new IllegalArgumentException();
             }
         }
+        this.stride = energies.length + 1;
+        this.columns = new int[weights.length * stride];
+        for (int i = 0; i < weights.length; i++) {
+            columns[i * stride] = weights[i];
+            for (int objective = 0; objective < energies.length; objective++) {
+                columns[i * stride + 1 + objective] = energies[objective][i];
+            }
+        }
 
         setNumberOfVariables(1);
         setNumberOfObjectives(energies.length);
@@ -139,27 +75,53 @@ public class KnapsackProblem extends AbstractBinaryProblem implements Constraine
 
     @Override
     public void evaluate(BinarySolution solution) {
-        BitSet items = solution.getVariableValue(0);
-        for (int objective = 0; objective < energies.length; objective++) {
-            int totalEnergy = 0;
-            for (int i = 0; i < energies[objective].length; i++) {
-                if (items.get(i)) {
-                    totalEnergy += energies[objective][i];
-                }
-            }
-            solution.setObjective(objective, -totalEnergy);
-        }
+        setObjectives(solution, totals(solution));
     }
 
     @Override
     public void evaluateConstraints(BinarySolution solution) {
-        BitSet items = solution.getVariableValue(0);
-        int totalWeight = 0;
-        for (int i = 0; i < weights.length; i++) {
-            if (items.get(i)) {
-                totalWeight += weights[i];
+        setConstraints(solution, totals(solution));
+    }
+
+    /**
+     * Flips one item of an evaluated solution, updating its objectives and
+     * constraints in time proportional to the number of objectives. The items
+     * of the solution must not have been changed by anything else since it
+     * was last evaluated or flipped.
+     */
+    public void flip(BinarySolution solution, int item) {
+        Totals totals = (Totals) solution.getAttribute(Totals.class);
+        if (totals == null || totals.owner != solution) {
+            totals = totals(solution);
+            if (totals.owner != solution) {
+                totals = new Totals(solution, totals.items.clone(), totals.sums.clone());
+                solution.setAttribute(Totals.class, totals);
             }
         }
+        BitSet items = solution.getVariableValue(0);
+        int sign = items.get(item) ? -1 : 1;
+        items.flip(item);
+        totals.items[item >>> 6] ^= 1L << item;
+        int base = item * stride;
+        for (int k = 0; k < stride; k++) {
+            totals.sums[k] += sign * columns[base + k];
+        }
+        setObjectives(solution, totals);
+        setConstraints(solution, totals);
+    }
+
+    public int getTotalWeight(BinarySolution solution) {
+        return totals(solution).sums[0];
+    }
+
+    private void setObjectives(BinarySolution solution, Totals totals) {
+        for (int objective = 0; objective < energies.length; objective++) {
+            solution.setObjective(objective, -totals.sums[objective + 1]);
+        }
+    }
+
+    private void setConstraints(BinarySolution solution, Totals totals) {
+        int totalWeight = totals.sums[0];
         if (totalWeight > capacity) {
             overallConstraintViolationDegree.setAttribute(solution, (double) capacity - totalWeight);
             numberOfViolatedConstraints.setAttribute(solution, 1);
@@ -168,4 +130,89 @@ public class KnapsackProblem extends AbstractBinaryProblem implements Constraine
             numberOfViolatedConstraints.setAttribute(solution, 0);
         }
     }
+
+    /*
+     * The total weight followed by the total energies of a solution, along
+     * with the items they were summed over. Copies of a solution share its
+     * attributes, possibly across evaluator threads, so evaluating never
+     * updates totals in place. Only flip does, and only for the solution
+     * owning them.
+     */
+    private static class Totals {
+
+        private final BinarySolution owner;
+        private final long[] items;
+        private final int[] sums;
+
+        Totals(BinarySolution owner, long[] items, int[] sums) {
+            this.owner = owner;
+            this.items = items;
+            this.sums = sums;
+        }
+    }
+
+    /*
+     * Brings the cached totals of the solution up to date with its items. The
+     * items that changed since the totals were computed are found by xor-ing
+     * the words, and only those are added or subtracted unless there are more
+     * of them than items in the solution.
+     */
+    private Totals totals(BinarySolution solution) {
+        long[] words = Arrays.copyOf(solution.getVariableValue(0).toLongArray(), (weights.length + 63) >>> 6);
+        Object attribute = solution.getAttribute(Totals.class);
+        if (attribute instanceof Totals) {
+            Totals cached = (Totals) attribute;
+            int changed = 0;
+            int selected = 0;
+            for (int w = 0; w < words.length; w++) {
+                changed += Long.bitCount(words[w] ^ cached.items[w]);
+                selected += Long.bitCount(words[w]);
+            }
+            if (changed == 0) {
+                return cached;
+            }
+            if (changed <= selected) {
+                int[] sums = cached.sums.clone();
+                for (int w = 0; w < words.length; w++) {
+                    long diff = words[w] ^ cached.items[w];
+                    add(sums, w, diff & words[w]);
+                    subtract(sums, w, diff & cached.items[w]);
+                }
+                Totals totals = new Totals(solution, words, sums);
+                solution.setAttribute(Totals.class, totals);
+                return totals;
+            }
+        }
+        int[] sums = new int[stride];
+        for (int w = 0; w < words.length; w++) {
+            add(sums, w, words[w]);
+        }
+        Totals totals = new Totals(solution, words, sums);
+        solution.setAttribute(Totals.class, totals);
+        return totals;
+    }
+
+    /*
+     * Adds the weight and energies of every item in the word to sums, all in
+     * one pass over the set bits.
+     */
+    private void add(int[] sums, int word, long bits) {
+        while (bits != 0) {
+            int base = ((word << 6) + Long.numberOfTrailingZeros(bits)) * stride;
+            for (int k = 0; k < stride; k++) {
+                sums[k] += columns[base + k];
+            }
+            bits &= bits - 1;
+        }
+    }
+
+    private void subtract(int[] sums, int word, long bits) {
+        while (bits != 0) {
+            int base = ((word << 6) + Long.numberOfTrailingZeros(bits)) * stride;
+            for (int k = 0; k < stride; k++) {
+                sums[k] -= columns[base + k];
+            }
+            bits &= bits - 1;
+        }
+    }
 }
@@ -1,17 +1,17 @@
 package org.gsd;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.chocosolver.solver.Solver;
 import org.chocosolver.solver.SolverFactory;
-import org.chocosolver.solver.constraints.ICF;
-import org.chocosolver.solver.search.loop.monitors.IMonitorInitialize;
-import org.chocosolver.solver.search.loop.monitors.IMonitorOpenNode;
+import org.chocosolver.solver.constraints.Constraint;
 import org.chocosolver.solver.search.strategy.ISF;
 import org.chocosolver.solver.variables.BoolVar;
 import org.chocosolver.solver.variables.IntVar;
@@ -24,6 +24,7 @@ import org.uma.jmetal.algorithm.multiobjective.nsgaii.SteadyStateNSGAII;
 import org.uma.jmetal.algorithm.multiobjective.pesa2.PESA2;
 import org.uma.jmetal.algorithm.multiobjective.spea2.SPEA2;
 import org.uma.jmetal.operator.CrossoverOperator;
+import org.uma.jmetal.operator.LocalSearchOperator;
 import org.uma.jmetal.operator.MutationOperator;
 import org.uma.jmetal.operator.SelectionOperator;
 import org.uma.jmetal.operator.impl.crossover.SinglePointCrossover;
@@ -31,11 +32,12 @@ import org.uma.jmetal.operator.impl.mutation.BitFlipMutation;
 import org.uma.jmetal.operator.impl.selection.BinaryTournamentSelection;
 import org.uma.jmetal.runner.AbstractAlgorithmRunner;
 import org.uma.jmetal.solution.BinarySolution;
-import org.uma.jmetal.util.archive.impl.NonDominatedSolutionListArchive;
 import org.uma.jmetal.util.comparator.RankingAndCrowdingDistanceComparator;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
 import org.uma.jmetal.util.evaluator.impl.SequentialSolutionListEvaluator;
 import org.uma.jmetal.util.neighborhood.Neighborhood;
 import org.uma.jmetal.util.neighborhood.impl.C9;
+import org.uma.jmetal.util.solutionattribute.Ranking;
 import org.uma.jmetal.util.solutionattribute.impl.NumberOfViolatedConstraints;
 
 /**
@@ -44,74 +46,274 @@ import org.uma.jmetal.util.solutionattribute.impl.NumberOfViolatedConstraints;
  */
 public class KnapsackRunner extends AbstractAlgorithmRunner {
 
+    /* The generations of the metaheuristic phase of hybrid. */
+    private static final int HYBRID_GENERATIONS = 100;
+    /* The generations of an island between two migrations, and the solutions migrating. */
+    private static final int MIGRATION_GENERATIONS = 10;
+    private static final int MIGRANTS = 5;
+    /* The population of the metaheuristics, unless given to solve. */
+    private static final int POPULATION_SIZE = Integer.getInteger("knapsack.population", 100);
+
+    /*
+     * The algorithm, the instance, the threads and, for oia and gia, a
+     * checkpoint saved every minute and resumed from if it exists.
+     * -Dknapsack.population sets the population of the metaheuristics, 100 by
+     * default.
+     */
     public static void main(String[] args) throws IOException {
-        run(Integer.parseInt(args[0]), new File(args[1]));
+        /* The islands seed and draw from the generator of their own thread. */
+        ThreadLocalGenerator.install();
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        ParetoCheckpoint checkpoint = args.length > 3 ? new ParetoCheckpoint(Paths.get(args[3]), 60 * 1000) : null;
+        run(Integer.parseInt(args[0]), new File(args[1]), threads, checkpoint);
     }
 
     public static void run(int algorithm, File file) throws IOException {
-        int populationSize = 100;
+        run(algorithm, file, 1);
+    }
+
+    public static void run(int algorithm, File file, int threads) throws IOException {
+        run(algorithm, file, threads, null);
+    }
+
+    public static void run(int algorithm, File file, int threads, ParetoCheckpoint checkpoint) throws IOException {
         long timeout = 5 * 60 * 1000;
-        KnapsackProblem problem = KnapsackProblem.parseKnapsack(new BufferedReader(new FileReader(file)));
+        KnapsackProblem problem = KnapsackLoader.load(file.toPath());
+
+        /*
+         * Every algorithm prints its points first and the summary last: the
+         * exact engines print their points as soon as they find them, the
+         * others once they are done.
+         */
+        ParetoPrinter printer = new ParetoPrinter(System.out, true);
+        Result result = solve(algorithm, problem, threads, new Budget().withWallClock(timeout),
+                System.currentTimeMillis(), printer, checkpoint);
+
+        if (!result.streamed) {
+            ParetoPrinter front = new ParetoPrinter(System.out, false);
+            result.paretoFront.forEach(front::added);
+        }
+        System.out.println(result.name + " " + problem.getNumberOfObjectives() + " " + problem.getNumberOfObjects() + " " + result.paretoFront.size() + " " + result.time);
+
+        // No constraint: ibea, smsemoa
+    }
+
+    /**
+     * The outcome of one run. The front is minimized, like the printed ones.
+     */
+    public static class Result {
+
+        public final String name;
+        public final List<int[]> paretoFront;
+        /*
+         * Solutions found by oia, gia and portfolio, -1 for the others: decompose
+         * resets its solvers between subproblems.
+         */
+        public final long solutions;
+        public final long time;
+        public final boolean limitReached;
+        /* Whether the points were given to the listener along the way. */
+        public final boolean streamed;
+
+        Result(String name, List<int[]> paretoFront, long solutions, long time, boolean limitReached, boolean streamed) {
+            this.name = name;
+            this.paretoFront = paretoFront;
+            this.solutions = solutions;
+            this.time = time;
+            this.limitReached = limitReached;
+            this.streamed = streamed;
+        }
+    }
+
+    /**
+     * Runs one algorithm on the problem, reduced by a KnapsackPresolver first.
+     * The budget starts right away, for every algorithm alike.
+     *
+     * @param seed diversifies the Choco searches and the islands, the other
+     * metaheuristics draw from JMetalRandom
+     * @param originalListener given the points of the exact engines as soon
+     * as they are found, or null
+     */
+    public static Result solve(int algorithm, KnapsackProblem original, int threads, Budget budget, long seed,
+            ParetoListener originalListener) {
+        return solve(algorithm, original, threads, budget, seed, originalListener, null);
+    }
+
+    /**
+     * @param checkpoint the search of oia or gia to resume and save, or null.
+     * It holds the points of the reduced problem, which the presolver
+     * reduces the same way every run.
+     */
+    public static Result solve(int algorithm, KnapsackProblem original, int threads, Budget budget, long seed,
+            ParetoListener originalListener, ParetoCheckpoint checkpoint) {
+        return solve(algorithm, original, threads, budget, seed, originalListener, checkpoint, POPULATION_SIZE);
+    }
+
+    /**
+     * @param populationSize the population of the metaheuristics and the
+     * solutions seeding them
+     */
+    public static Result solve(int algorithm, KnapsackProblem original, int threads, Budget budget, long seed,
+            ParetoListener originalListener, ParetoCheckpoint checkpoint, int populationSize) {
+        if (checkpoint != null && algorithm != 0 && algorithm != 16) {
+            throw new IllegalArgumentException("Only oia and gia resume from a checkpoint");
+        }
+
+        SolutionListEvaluator<BinarySolution> evaluator = budget.count(threads > 1
+                ? new ParallelSolutionListEvaluator<>(threads)
+                : new SequentialSolutionListEvaluator<>());
 
         long start = System.currentTimeMillis();
+        budget.start();
+        KnapsackPresolver presolver = new KnapsackPresolver(original);
+        KnapsackProblem problem = presolver.getReduced();
+        ParetoListener listener = presolver.restore(originalListener);
 
         String name;
         List<int[]> paretoFront;
+        long solutions = -1;
+        boolean streamed = false;
 
         switch (algorithm) {
             case 0:
                 Solver solver = SolverFactory.makeSolver();
-                IntVar[] objectives = choco(problem, solver, timeout);
+                IntVar[] objectives = choco(problem, solver, budget, seed, true);
                 name = "oia";
-                paretoFront = Moo.oia(solver, objectives);
-                for (int[] paretoPoint : paretoFront) {
-                    for (int i = 0; i < paretoPoint.length; i++) {
-                        paretoPoint[i] = -paretoPoint[i];
-                    }
-                }
+                paretoFront = negate(Moo.oia(solver, listener, checkpoint, objectives));
+                solutions = solver.getMeasures().getSolutionCount();
+                streamed = true;
                 break;
             case 1:
                 name = "spea";
-                paretoFront = map(KnapsackRunner::convert, runJMetal(spea(problem, populationSize, timeout)));
+                paretoFront = map(KnapsackRunner::convert, runJMetal(spea(problem, populationSize, budget, evaluator)));
                 break;
             case 2:
                 name = "pesa";
-                paretoFront = map(KnapsackRunner::convert, runJMetal(pesa(problem, populationSize, timeout)));
+                paretoFront = map(KnapsackRunner::convert, runJMetal(pesa(problem, populationSize, budget, evaluator)));
                 break;
             case 3:
                 name = "mocell";
-                paretoFront = map(KnapsackRunner::convert, runJMetal(mocell(problem, populationSize, timeout)));
+                paretoFront = map(KnapsackRunner::convert, runJMetal(mocell(problem, populationSize, budget, evaluator)));
                 break;
             case 4:
                 name = "nsgaii";
-                paretoFront = map(KnapsackRunner::convert, runJMetal(nsgaii(problem, populationSize, timeout)));
+                paretoFront = map(KnapsackRunner::convert, runJMetal(nsgaii(problem, populationSize, budget, evaluator)));
                 break;
             case 5:
                 name = "steadyStateNsgaii";
-                paretoFront = map(KnapsackRunner::convert, runJMetal(steadyStateNsgaii(problem, populationSize, timeout)));
+                paretoFront = map(KnapsackRunner::convert, runJMetal(steadyStateNsgaii(problem, populationSize, budget, evaluator)));
                 break;
             case 6:
                 name = "nsgaiiMeasures";
-                paretoFront = map(KnapsackRunner::convert, runJMetal(nsgaiiMeasures(problem, populationSize, timeout)));
+                paretoFront = map(KnapsackRunner::convert, runJMetal(nsgaiiMeasures(problem, populationSize, budget, evaluator)));
                 break;
             case 7:
                 name = "random";
-                paretoFront = map(KnapsackRunner::convert, runJMetal(random(problem, timeout)));
+                paretoFront = map(KnapsackRunner::convert, runJMetal(random(problem, budget)));
+                break;
+            case 8:
+                name = "portfolio";
+                Solver[] solvers = new Solver[threads];
+                IntVar[][] portfolioObjectives = new IntVar[threads][];
+                for (int k = 0; k < threads; k++) {
+                    solvers[k] = SolverFactory.makeSolver();
+                    portfolioObjectives[k] = choco(problem, solvers[k], budget, seed + k, k % 2 == 0);
+                }
+                paretoFront = negate(Moo.portfolio(solvers, portfolioObjectives, listener));
+                solutions = 0;
+                for (Solver s : solvers) {
+                    solutions += s.getMeasures().getSolutionCount();
+                }
+                streamed = true;
+                break;
+            case 9:
+                name = "decompose";
+                paretoFront = negate(Moo.decompose(s -> choco(problem, s, budget, seed, true), threads, listener));
+                streamed = true;
+                break;
+            case 10:
+                name = "randomLocalSearch";
+                paretoFront = map(KnapsackRunner::convert, runJMetal(random(problem, budget, new KnapsackLocalSearch(problem))));
+                break;
+            case 11:
+                name = "nemhauserUllmann";
+                paretoFront = negate(NemhauserUllmann.pareto(problem, threads, budget, listener));
+                streamed = true;
+                break;
+            case 12:
+                name = "hybrid";
+                /*
+                 * The first solutions of Choco seed the population of a short
+                 * nsgaii. Their front and that of nsgaii then seed the
+                 * archive of oia.
+                 */
+                List<int[]> hybridSeeds = new ArrayList<>();
+                List<BinarySolution> seeds = chocoSeeds(problem, populationSize, budget, seed, hybridSeeds);
+                Budget phase = new Budget().withEvaluations((long) HYBRID_GENERATIONS * populationSize).withParent(budget);
+                List<BinarySolution> evolved = runJMetal(nsgaii(problem, populationSize, phase, phase.count(evaluator), seeds));
+                hybridSeeds.addAll(feasible(evolved));
+                Solver hybridSolver = SolverFactory.makeSolver();
+                IntVar[] hybridObjectives = choco(problem, hybridSolver, budget, seed, true);
+                paretoFront = negate(Moo.oia(hybridSolver, listener, hybridSeeds, null, hybridObjectives));
+                solutions = hybridSolver.getMeasures().getSolutionCount();
+                streamed = true;
+                break;
+            case 13:
+                name = "islandNsgaii";
+                paretoFront = map(KnapsackRunner::convert, runJMetal(new IslandModel(problem, threads, seed,
+                        MIGRATION_GENERATIONS * populationSize, MIGRANTS,
+                        island -> nsgaii(problem, populationSize, budget, budget.count(island)))));
+                break;
+            case 14:
+                name = "islandSpea";
+                paretoFront = map(KnapsackRunner::convert, runJMetal(new IslandModel(problem, threads, seed,
+                        MIGRATION_GENERATIONS * populationSize, MIGRANTS,
+                        island -> spea(problem, populationSize, budget, budget.count(island)))));
+                break;
+            case 15:
+                name = "islandMocell";
+                paretoFront = map(KnapsackRunner::convert, runJMetal(new IslandModel(problem, threads, seed,
+                        MIGRATION_GENERATIONS * populationSize, MIGRANTS,
+                        island -> mocell(problem, populationSize, budget, budget.count(island)))));
+                break;
+            case 16:
+                name = "gia";
+                Solver giaSolver = SolverFactory.makeSolver();
+                IntVar[] giaObjectives = choco(problem, giaSolver, budget, seed, true);
+                /* gia only counts its guided searches, its front is followed through the listener. */
+                ParetoArchive<Void> giaFront = new ParetoArchive<>(problem.getNumberOfObjectives());
+                Moo.gia(giaSolver, new ParetoListener() {
+
+                    @Override
+                    public void added(int[] point) {
+                        giaFront.add(point);
+                        if (listener != null) {
+                            listener.added(point);
+                        }
+                    }
+
+                    @Override
+                    public void removed(int[] point) {
+                        if (listener != null) {
+                            listener.removed(point);
+                        }
+                    }
+                }, checkpoint, giaObjectives);
+                paretoFront = negate(giaFront.getPoints());
+                solutions = giaSolver.getMeasures().getSolutionCount();
+                streamed = true;
                 break;
             default:
                 throw new IllegalArgumentException();
         }
 
-        long time = System.currentTimeMillis() - start;
-        System.out.println(name + " " + problem.getNumberOfObjectives() + " " + problem.getNumberOfObjects() + " " + paretoFront.size() + " " + time);
-        for (int[] paretoPoint : paretoFront) {
-            for (int p : paretoPoint) {
-                System.out.print(p + " ");
-            }
-            System.out.println(";");
-        }
+        evaluator.shutdown();
+        budget.stop();
+        /* Every front is minimized by now. */
+        paretoFront = negate(map(presolver::restore, negate(paretoFront)));
 
-        // No constraint: ibea, smsemoa
+        long time = System.currentTimeMillis() - start;
+        return new Result(name, paretoFront, solutions, time, budget.isExhausted(), streamed);
     }
 
     private static <T> T runJMetal(Algorithm<T> algorithm) {
@@ -127,6 +329,28 @@ public class KnapsackRunner extends AbstractAlgorithmRunner {
         return paretoPoint;
     }
 
+    /* The maximized points of the solutions under the capacity. */
+    private static List<int[]> feasible(List<BinarySolution> solutions) {
+        NumberOfViolatedConstraints<BinarySolution> numberOfViolatedConstraints = new NumberOfViolatedConstraints<>();
+        Integer zero = 0;
+        List<int[]> points = new ArrayList<>();
+        for (BinarySolution solution : solutions) {
+            if (zero.equals(numberOfViolatedConstraints.getAttribute(solution))) {
+                points.add(convert(solution));
+            }
+        }
+        return negate(points);
+    }
+
+    private static List<int[]> negate(List<int[]> paretoFront) {
+        for (int[] paretoPoint : paretoFront) {
+            for (int i = 0; i < paretoPoint.length; i++) {
+                paretoPoint[i] = -paretoPoint[i];
+            }
+        }
+        return paretoFront;
+    }
+
     private static <T, R> List<R> map(Function<T, R> function, List<T> list) {
         return list.stream().map(function).collect(Collectors.toList());
     }
@@ -142,7 +366,8 @@ public class KnapsackRunner extends AbstractAlgorithmRunner {
     /*
      * Adapting SPEA2BinaryRunner to knapsack.
      */
-    public static Algorithm<List<BinarySolution>> spea(KnapsackProblem problem, int populationSize, long timeout) {
+    public static Algorithm<List<BinarySolution>> spea(KnapsackProblem problem, int populationSize, Budget budget,
+            SolutionListEvaluator<BinarySolution> evaluator) {
         double crossoverProbability = 0.9;
         CrossoverOperator<BinarySolution> crossover = new SinglePointCrossover(crossoverProbability);
 
@@ -152,18 +377,16 @@ public class KnapsackRunner extends AbstractAlgorithmRunner {
         SelectionOperator<List<BinarySolution>, BinarySolution> selection
                 = new BinaryTournamentSelection<>(new RankingAndCrowdingDistanceComparator<>());
 
-        return new SPEA2(problem, 0, populationSize, crossover, mutation, selection, new SequentialSolutionListEvaluator<>()) {
-            long start = 0;
-
+        return new SPEA2(problem, 0, populationSize, crossover, mutation, selection, evaluator) {
             @Override
             protected void initProgress() {
                 super.initProgress();
-                start = System.currentTimeMillis();
+                budget.start();
             }
 
             @Override
             protected boolean isStoppingConditionReached() {
-                return System.currentTimeMillis() - start > timeout;
+                return budget.isExhausted();
             }
         };
     }
@@ -171,25 +394,24 @@ public class KnapsackRunner extends AbstractAlgorithmRunner {
     /*
      * Adapting PESA2Runner to knapsack.
      */
-    public static Algorithm<List<BinarySolution>> pesa(KnapsackProblem problem, int populationSize, long timeout) {
+    public static Algorithm<List<BinarySolution>> pesa(KnapsackProblem problem, int populationSize, Budget budget,
+            SolutionListEvaluator<BinarySolution> evaluator) {
         double crossoverProbability = 0.9;
         CrossoverOperator<BinarySolution> crossover = new SinglePointCrossover(crossoverProbability);
 
         double mutationProbability = 1.0 / problem.getTotalNumberOfBits();
         MutationOperator<BinarySolution> mutation = new BitFlipMutation(mutationProbability);
 
-        return new PESA2(problem, 0, populationSize, 100, 5, crossover, mutation, new SequentialSolutionListEvaluator<>()) {
-            long start = 0;
-
+        return new PESA2(problem, 0, populationSize, 100, 5, crossover, mutation, evaluator) {
             @Override
             protected void initProgress() {
                 super.initProgress();
-                start = System.currentTimeMillis();
+                budget.start();
             }
 
             @Override
             protected boolean isStoppingConditionReached() {
-                return System.currentTimeMillis() - start > timeout;
+                return budget.isExhausted();
             }
         };
     }
@@ -197,7 +419,8 @@ public class KnapsackRunner extends AbstractAlgorithmRunner {
     /*
      * Adapting MOCell to knapsack.
      */
-    public static Algorithm<List<BinarySolution>> mocell(KnapsackProblem problem, int populationSize, long timeout) {
+    public static Algorithm<List<BinarySolution>> mocell(KnapsackProblem problem, int populationSize, Budget budget,
+            SolutionListEvaluator<BinarySolution> evaluator) {
         double crossoverProbability = 0.9;
         CrossoverOperator<BinarySolution> crossover = new SinglePointCrossover(crossoverProbability);
 
@@ -209,26 +432,35 @@ public class KnapsackRunner extends AbstractAlgorithmRunner {
 
         Neighborhood<BinarySolution> neighborhood = new C9<>((int) Math.sqrt(populationSize), (int) Math.sqrt(populationSize));
 
-        return new MOCell(problem, 0, populationSize, 100, neighborhood, crossover, mutation, selection, new SequentialSolutionListEvaluator<>()) {
-            long start = 0;
-
+        return new MOCell(problem, 0, populationSize, 100, neighborhood, crossover, mutation, selection, evaluator) {
             @Override
             protected void initProgress() {
                 super.initProgress();
-                start = System.currentTimeMillis();
+                budget.start();
             }
 
             @Override
             protected boolean isStoppingConditionReached() {
-                return System.currentTimeMillis() - start > timeout;
+                return budget.isExhausted();
             }
         };
     }
 
     /*
-     * Adapting NSGAIIBinaryRunner to knapsack.
+     * Adapting NSGAIIBinaryRunner to knapsack. The NSGA-IIs rank with
+     * EfficientNonDominatedSorting, for large populations.
+     */
+    public static Algorithm<List<BinarySolution>> nsgaii(KnapsackProblem problem, int populationSize, Budget budget,
+            SolutionListEvaluator<BinarySolution> evaluator) {
+        return nsgaii(problem, populationSize, budget, evaluator, Collections.emptyList());
+    }
+
+    /*
+     * Starting from copies of the seeds, as many as fit, the rest of the
+     * initial population being random.
      */
-    public static Algorithm<List<BinarySolution>> nsgaii(KnapsackProblem problem, int populationSize, long timeout) {
+    public static Algorithm<List<BinarySolution>> nsgaii(KnapsackProblem problem, int populationSize, Budget budget,
+            SolutionListEvaluator<BinarySolution> evaluator, List<BinarySolution> seeds) {
 
         double crossoverProbability = 0.9;
         CrossoverOperator<BinarySolution> crossover = new SinglePointCrossover(crossoverProbability);
@@ -239,18 +471,40 @@ public class KnapsackRunner extends AbstractAlgorithmRunner {
         SelectionOperator<List<BinarySolution>, BinarySolution> selection
                 = new BinaryTournamentSelection<>(new RankingAndCrowdingDistanceComparator<>());
 
-        return new NSGAII(problem, 0, populationSize, crossover, mutation, selection, new SequentialSolutionListEvaluator<>()) {
-            long start = 0;
+        return new NSGAII<BinarySolution>(problem, 0, populationSize, crossover, mutation, selection, evaluator) {
+            private final Ranking<BinarySolution> ranking = new EfficientNonDominatedSorting<>();
+
+            @Override
+            protected Ranking<BinarySolution> computeRanking(List<BinarySolution> solutionList) {
+                return ranking.computeRanking(solutionList);
+            }
+
+            @Override
+            protected List<BinarySolution> getNonDominatedSolutions(List<BinarySolution> solutionList) {
+                return new EfficientNonDominatedSorting<BinarySolution>().computeRanking(solutionList).getSubfront(0);
+            }
+
+            @Override
+            protected List<BinarySolution> createInitialPopulation() {
+                List<BinarySolution> population = new ArrayList<>(populationSize);
+                for (BinarySolution seed : seeds.subList(0, Math.min(seeds.size(), populationSize))) {
+                    population.add((BinarySolution) seed.copy());
+                }
+                while (population.size() < populationSize) {
+                    population.add(problem.createSolution());
+                }
+                return population;
+            }
 
             @Override
             protected void initProgress() {
                 super.initProgress();
-                start = System.currentTimeMillis();
+                budget.start();
             }
 
             @Override
             protected boolean isStoppingConditionReached() {
-                return System.currentTimeMillis() - start > timeout;
+                return budget.isExhausted();
             }
         };
     }
@@ -258,7 +512,8 @@ public class KnapsackRunner extends AbstractAlgorithmRunner {
     /*
      * Adapting NSGAIIBinaryRunner to knapsack.
      */
-    public static Algorithm<List<BinarySolution>> steadyStateNsgaii(KnapsackProblem problem, int populationSize, long timeout) {
+    public static Algorithm<List<BinarySolution>> steadyStateNsgaii(KnapsackProblem problem, int populationSize, Budget budget,
+            SolutionListEvaluator<BinarySolution> evaluator) {
 
         double crossoverProbability = 0.9;
         CrossoverOperator<BinarySolution> crossover = new SinglePointCrossover(crossoverProbability);
@@ -269,18 +524,29 @@ public class KnapsackRunner extends AbstractAlgorithmRunner {
         SelectionOperator<List<BinarySolution>, BinarySolution> selection
                 = new BinaryTournamentSelection<>(new RankingAndCrowdingDistanceComparator<>());
 
-        return new SteadyStateNSGAII(problem, 0, populationSize, crossover, mutation, selection, new SequentialSolutionListEvaluator<>()) {
-            long start = 0;
+        return new SteadyStateNSGAII<BinarySolution>(problem, 0, populationSize, crossover, mutation, selection, evaluator) {
+            /* One offspring per generation, the survivors keep their ranks. */
+            private final Ranking<BinarySolution> ranking = new EfficientNonDominatedSorting<>(true);
+
+            @Override
+            protected Ranking<BinarySolution> computeRanking(List<BinarySolution> solutionList) {
+                return ranking.computeRanking(solutionList);
+            }
+
+            @Override
+            protected List<BinarySolution> getNonDominatedSolutions(List<BinarySolution> solutionList) {
+                return new EfficientNonDominatedSorting<BinarySolution>().computeRanking(solutionList).getSubfront(0);
+            }
 
             @Override
             protected void initProgress() {
                 super.initProgress();
-                start = System.currentTimeMillis();
+                budget.start();
             }
 
             @Override
             protected boolean isStoppingConditionReached() {
-                return System.currentTimeMillis() - start > timeout;
+                return budget.isExhausted();
             }
         };
     }
@@ -288,7 +554,8 @@ public class KnapsackRunner extends AbstractAlgorithmRunner {
     /*
      * Adapting NSGAIIBinaryRunner to knapsack.
      */
-    public static Algorithm<List<BinarySolution>> nsgaiiMeasures(KnapsackProblem problem, int populationSize, long timeout) {
+    public static Algorithm<List<BinarySolution>> nsgaiiMeasures(KnapsackProblem problem, int populationSize, Budget budget,
+            SolutionListEvaluator<BinarySolution> evaluator) {
 
         double crossoverProbability = 0.9;
         CrossoverOperator<BinarySolution> crossover = new SinglePointCrossover(crossoverProbability);
@@ -299,18 +566,28 @@ public class KnapsackRunner extends AbstractAlgorithmRunner {
         SelectionOperator<List<BinarySolution>, BinarySolution> selection
                 = new BinaryTournamentSelection<>(new RankingAndCrowdingDistanceComparator<>());
 
-        return new NSGAIIMeasures(problem, 0, populationSize, crossover, mutation, selection, new SequentialSolutionListEvaluator<>()) {
-            long start = 0;
+        return new NSGAIIMeasures<BinarySolution>(problem, 0, populationSize, crossover, mutation, selection, evaluator) {
+            private final Ranking<BinarySolution> ranking = new EfficientNonDominatedSorting<>();
+
+            @Override
+            protected Ranking<BinarySolution> computeRanking(List<BinarySolution> solutionList) {
+                return ranking.computeRanking(solutionList);
+            }
+
+            @Override
+            protected List<BinarySolution> getNonDominatedSolutions(List<BinarySolution> solutionList) {
+                return new EfficientNonDominatedSorting<BinarySolution>().computeRanking(solutionList).getSubfront(0);
+            }
 
             @Override
             protected void initProgress() {
                 super.initProgress();
-                start = System.currentTimeMillis();
+                budget.start();
             }
 
             @Override
             protected boolean isStoppingConditionReached() {
-                return System.currentTimeMillis() - start > timeout;
+                return budget.isExhausted();
             }
         };
     }
@@ -318,79 +595,118 @@ public class KnapsackRunner extends AbstractAlgorithmRunner {
     /*
      * Adapting RandomSearchRunner to knapsack.
      */
-    public static Algorithm<List<BinarySolution>> random(KnapsackProblem problem, long timeout) {
+    public static Algorithm<List<BinarySolution>> random(KnapsackProblem problem, Budget budget) {
+        return random(problem, budget, null);
+    }
+
+    /*
+     * Random search where every random solution is improved by localSearch
+     * before being archived, unless it is null.
+     */
+    public static Algorithm<List<BinarySolution>> random(KnapsackProblem problem, Budget budget,
+            LocalSearchOperator<BinarySolution> localSearch) {
         /*
          * Adapting RandomSearch to account for constraints.
          */
         return new Algorithm<List<BinarySolution>>() {
 
-            NonDominatedSolutionListArchive<BinarySolution> nonDominatedArchive = new NonDominatedSolutionListArchive<>();
+            ParetoArchive<BinarySolution> nonDominatedArchive = new ParetoArchive<>(problem.getNumberOfObjectives());
             NumberOfViolatedConstraints<BinarySolution> numberOfViolatedConstraints = new NumberOfViolatedConstraints<>();
 
             @Override
             public void run() {
                 Integer zero = 0;
-                long start = System.currentTimeMillis();
+                budget.start();
                 BinarySolution newSolution;
-                while (System.currentTimeMillis() - start <= timeout) {
+                while (!budget.isExhausted()) {
                     newSolution = problem.createSolution();
                     problem.evaluate(newSolution);
                     problem.evaluateConstraints(newSolution);
+                    budget.evaluated(1);
+                    if (localSearch != null) {
+                        newSolution = localSearch.execute(newSolution);
+                    }
                     if (zero.equals(numberOfViolatedConstraints.getAttribute(newSolution))) {
-                        nonDominatedArchive.add(newSolution);
+                        int[] energies = convert(newSolution);
+                        for (int i = 0; i < energies.length; i++) {
+                            energies[i] = -energies[i];
+                        }
+                        nonDominatedArchive.add(energies, newSolution);
                     }
                 }
             }
 
             @Override
             public List<BinarySolution> getResult() {
-                return nonDominatedArchive.getSolutionList();
+                return nonDominatedArchive.getValues();
             }
         };
     }
 
-    public static IntVar[] choco(KnapsackProblem problem, Solver solver, long timeout) {
-        BoolVar[] occurences = VF.boolArray("occurences", problem.getNumberOfObjects(), solver);
-        IntVar totalWeight = VF.enumerated("totalWeight", 0, problem.getCapacity(), solver);
+    public static IntVar[] choco(KnapsackProblem problem, Solver solver, Budget budget) {
+        return choco(problem, solver, budget, System.currentTimeMillis(), true);
+    }
+
+    /*
+     * The seed and value selector let a portfolio diversify the search.
+     */
+    public static IntVar[] choco(KnapsackProblem problem, Solver solver, Budget budget, long seed, boolean maxValue) {
+        return choco(problem, solver, budget, seed, maxValue, VF.boolArray("occurences", problem.getNumberOfObjects(), solver));
+    }
+
+    /*
+     * Over the given occurences, for the solutions to be read back.
+     */
+    private static IntVar[] choco(KnapsackProblem problem, Solver solver, Budget budget, long seed, boolean maxValue,
+            BoolVar[] occurences) {
+        IntVar totalWeight = KnapsackConstraint.sum("totalWeight", problem.getCapacity(), solver);
         IntVar[] totalEnergies = new IntVar[problem.getNumberOfObjectives()];
         for (int i = 0; i < totalEnergies.length; i++) {
-            totalEnergies[i] = VF.enumerated("totalEnergy[" + i + "]", 0, sum(problem.getEnergies()[i]), solver);
-            solver.post(ICF.knapsack(occurences, totalWeight, totalEnergies[i], problem.getWeights(), problem.getEnergies()[i]));
+            totalEnergies[i] = KnapsackConstraint.sum("totalEnergy[" + i + "]", sum(problem.getEnergies()[i]), solver);
         }
-        solver.set(ISF.domOverWDeg(occurences, System.currentTimeMillis(), ISF.max_value_selector()));
-        solver.plugMonitor(new ChocoTimeout(solver, timeout));
+        solver.post(new KnapsackConstraint(occurences, totalWeight, totalEnergies, problem.getWeights(), problem.getEnergies()));
+        solver.set(ISF.domOverWDeg(occurences, seed, maxValue ? ISF.max_value_selector() : ISF.min_value_selector()));
+        budget.plug(solver);
         return totalEnergies;
     }
 
-    private static class ChocoTimeout implements IMonitorInitialize, IMonitorOpenNode {
-
-        private final Solver solver;
-        private final long timeout;
-        private long start = 0;
-
-        public ChocoTimeout(Solver solver, long timeout) {
-            this.solver = solver;
-            this.timeout = timeout;
-        }
-
-        @Override
-        public void beforeInitialize() {
-            start = System.currentTimeMillis();
-        }
-
-        @Override
-        public void afterInitialize() {
-        }
+    /*
+     * The first solutions of oia as jMetal solutions, at most count of them,
+     * every one not dominated by those found before it. They are not charged
+     * to the evaluations of the budget: the metaheuristic they seed evaluates
+     * them again, through its own counted evaluator.
+     */
+    public static List<BinarySolution> chocoSeeds(KnapsackProblem problem, int count, Budget budget, long seed) {
+        return chocoSeeds(problem, count, budget, seed, null);
+    }
 
-        @Override
-        public void beforeOpenNode() {
-            if (System.currentTimeMillis() - start > timeout) {
-                solver.getSearchLoop().interrupt("Times up", false);
-            }
+    /**
+     * @param front receives the points archived by the search, maximized, or
+     * null
+     */
+    public static List<BinarySolution> chocoSeeds(KnapsackProblem problem, int count, Budget budget, long seed,
+            List<int[]> front) {
+        Solver solver = SolverFactory.makeSolver();
+        BoolVar[] occurences = VF.boolArray("occurences", problem.getNumberOfObjects(), solver);
+        PropPareto pareto = new PropPareto(choco(problem, solver, budget, seed, true, occurences));
+        solver.post(new Constraint("Pareto", pareto));
+        List<BinarySolution> seeds = new ArrayList<>();
+        if (count > 0 && solver.findSolution()) {
+            do {
+                pareto.addSolution();
+                BinarySolution solution = problem.createSolution();
+                BitSet items = solution.getVariableValue(0);
+                for (int i = 0; i < occurences.length; i++) {
+                    items.set(i, occurences[i].getValue() == 1);
+                }
+                problem.evaluate(solution);
+                problem.evaluateConstraints(solution);
+                seeds.add(solution);
+            } while (seeds.size() < count && solver.nextSolution());
         }
-
-        @Override
-        public void afterOpenNode() {
+        if (front != null) {
+            front.addAll(pareto.getArchive().getPoints());
         }
+        return seeds;
     }
 }
@@ -4,10 +4,21 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.SolverFactory;
 import org.chocosolver.solver.constraints.Constraint;
 import org.chocosolver.solver.constraints.ICF;
 import org.chocosolver.solver.constraints.LCF;
+import org.chocosolver.solver.search.loop.monitors.IMonitorOpenNode;
 import org.chocosolver.solver.variables.IntVar;
 
 /**
@@ -16,58 +27,192 @@ import org.chocosolver.solver.variables.IntVar;
  */
 public class Moo {
 
-    private static boolean dominates(int[] a, int[] b) {
-        for (int i = 0; i < a.length; i++) {
-            if (a[i] < b[i]) {
-                return false;
+    public static List<int[]> oia(Solver solver, IntVar... objectives) {
+        return oia(solver, null, objectives);
+    }
+
+    /**
+     * @param listener notified of every point as soon as it is found and of
+     * every point dominated later on, or null
+     */
+    public static List<int[]> oia(Solver solver, ParetoListener listener, IntVar... objectives) {
+        return oia(solver, listener, null, objectives);
+    }
+
+    /**
+     * @param checkpoint the points of an earlier search to resume from, saved
+     * again every interval and once the search ends, or null. The points are
+     * notified to the listener as they are archived again, and a complete
+     * checkpoint is returned without searching.
+     */
+    public static List<int[]> oia(Solver solver, ParetoListener listener, ParetoCheckpoint checkpoint, IntVar... objectives) {
+        return oia(solver, listener, null, checkpoint, objectives);
+    }
+
+    /**
+     * @param seeds the points of solutions found beforehand, by a
+     * metaheuristic for instance, or null. They are archived before searching
+     * so that PropPareto prunes what they dominate from the first node, and
+     * notified to the listener like the points found.
+     */
+    public static List<int[]> oia(Solver solver, ParetoListener listener, List<int[]> seeds, ParetoCheckpoint checkpoint,
+            IntVar... objectives) {
+        PropPareto pareto = new PropPareto(archive(objectives.length, listener), objectives);
+        solver.post(new Constraint("Pareto", pareto));
+        if (seeds != null) {
+            seeds.forEach(pareto.getArchive()::add);
+        }
+        if (checkpoint != null) {
+            checkpoint.resume(solver, pareto);
+            if (checkpoint.isComplete()) {
+                return pareto.getArchive().getPoints();
+            }
+        }
+        try {
+            if (solver.findSolution()) {
+                do {
+                    pareto.addSolution();
+                } while (solver.nextSolution());
+            }
+        } finally {
+            if (checkpoint != null) {
+                checkpoint.stop();
             }
         }
-        return true;
+        if (checkpoint != null) {
+            checkpoint.save(solver, pareto.getArchive(), !solver.hasReachedLimit());
+        }
+        return pareto.getArchive().getPoints();
     }
 
-    public static List<int[]> oia(Solver solver, IntVar... objectives) {
-        List<int[]> paretoPoints = new ArrayList<>();
-        if (solver.findSolution()) {
-            do {
-                Constraint[] better = new Constraint[objectives.length];
-                for (int i = 0; i < objectives.length; i++) {
-                    better[i] = ICF.arithm(objectives[i], ">", objectives[i].getValue());
+    /**
+     * Runs oia on every solver concurrently, one thread each. The solvers
+     * should model the same problem, differing only in their search strategy.
+     * Every solver prunes with the points found by all the others, and the
+     * search stops as soon as one solver completes.
+     */
+    public static List<int[]> portfolio(Solver[] solvers, IntVar[][] objectives) {
+        return portfolio(solvers, objectives, null);
+    }
+
+    /**
+     * @param listener notified of the changes to the shared front, one thread
+     * at a time, or null
+     */
+    public static List<int[]> portfolio(Solver[] solvers, IntVar[][] objectives, ParetoListener listener) {
+        if (solvers.length != objectives.length) {
+            throw new IllegalArgumentException();
+        }
+        ConcurrentParetoArchive shared = new ConcurrentParetoArchive(objectives[0].length);
+        shared.setListener(listener);
+        AtomicBoolean complete = new AtomicBoolean(false);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int k = 0; k < solvers.length; k++) {
+            Solver solver = solvers[k];
+            PropPareto pareto = new PropPareto(objectives[k]);
+            solver.post(new Constraint("Pareto", pareto));
+            solver.plugMonitor(new IMonitorOpenNode() {
+                int version = 0;
+
+                @Override
+                public void beforeOpenNode() {
+                    if (complete.get()) {
+                        solver.getSearchLoop().interrupt("Portfolio complete", false);
+                    }
+                    version = shared.pull(version, pareto::addPoint);
                 }
-                solver.post(LCF.or(better));
 
-                int[] point = new int[objectives.length];
-                for (int i = 0; i < point.length; i++) {
-                    point[i] = objectives[i].getValue();
+                @Override
+                public void afterOpenNode() {
                 }
-                paretoPoints.removeIf(x -> dominates(point, x));
-                paretoPoints.add(point);
-            } while (solver.nextSolution());
+            });
+            tasks.add(() -> {
+                if (solver.findSolution()) {
+                    do {
+                        shared.add(pareto.addSolution());
+                    } while (solver.nextSolution());
+                }
+                if (!solver.hasReachedLimit()) {
+                    complete.set(true);
+                }
+                return null;
+            });
         }
-        return paretoPoints;
+        ExecutorService executor = Executors.newFixedThreadPool(solvers.length);
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return shared.getPoints();
     }
 
     public static int gia(Solver solver, IntVar... objectives) {
+        return gia(solver, null, objectives);
+    }
+
+    /**
+     * @param listener notified of every solution that is not dominated yet,
+     * and of its retraction once the guided search improves on it, or null
+     */
+    public static int gia(Solver solver, ParetoListener listener, IntVar... objectives) {
+        return gia(solver, listener, null, objectives);
+    }
+
+    /**
+     * @param checkpoint the points of an earlier search to resume from, as
+     * for oia, or null
+     */
+    public static int gia(Solver solver, ParetoListener listener, ParetoCheckpoint checkpoint, IntVar... objectives) {
+        PropPareto pareto = new PropPareto(archive(objectives.length, listener), objectives);
+        solver.post(new Constraint("Pareto", pareto));
+        if (checkpoint != null) {
+            checkpoint.resume(solver, pareto);
+            if (checkpoint.isComplete()) {
+                return 0;
+            }
+        }
         int count = 0;
-        while (solver.findSolution()) {
-            List<Constraint> stack = new ArrayList<>();
-            do {
-                Constraint[] better = new Constraint[objectives.length];
-                for (int i = 0; i < better.length; i++) {
-                    better[i] = ICF.arithm(objectives[i], ">", objectives[i].getValue());
-                    Constraint guide = ICF.arithm(objectives[i], ">=", objectives[i].getValue());
-                    stack.add(guide);
-                    solver.post(guide);
-                }
-                solver.post(LCF.or(better));
-            } while (solver.nextSolution());
-            count++;
-            solver.getSearchLoop().reset();
-            solver.getEngine().flush();
-            stack.forEach(solver::unpost);
+        try {
+            while (solver.findSolution()) {
+                List<Constraint> stack = new ArrayList<>();
+                do {
+                    for (int i = 0; i < objectives.length; i++) {
+                        Constraint guide = ICF.arithm(objectives[i], ">=", objectives[i].getValue());
+                        stack.add(guide);
+                        solver.post(guide);
+                    }
+                    pareto.addSolution();
+                } while (solver.nextSolution());
+                count++;
+                solver.getSearchLoop().reset();
+                solver.getEngine().flush();
+                stack.forEach(solver::unpost);
+            }
+        } finally {
+            if (checkpoint != null) {
+                checkpoint.stop();
+            }
+        }
+        if (checkpoint != null) {
+            checkpoint.save(solver, pareto.getArchive(), !solver.hasReachedLimit());
         }
         return count;
     }
 
+    private static ParetoArchive<Void> archive(int dimensions, ParetoListener listener) {
+        ParetoArchive<Void> archive = new ParetoArchive<>(dimensions);
+        archive.setListener(listener);
+        return archive;
+    }
+
     private static int[] cons(int head, int[] tail) {
         int[] cons = new int[tail.length + 1];
         cons[0] = head;
@@ -76,6 +221,14 @@ public class Moo {
     }
 
     public static List<int[]> classic(Solver solver, IntVar... objectives) {
+        return classic(solver, null, objectives);
+    }
+
+    /**
+     * @param listener notified of every point as soon as it is found, or null.
+     * The points are never dominated later on.
+     */
+    public static List<int[]> classic(Solver solver, ParetoListener listener, IntVar... objectives) {
         if (solver.findSolution()) {
             List<Constraint> stack = new ArrayList<>();
             int optimal0;
@@ -89,14 +242,22 @@ public class Moo {
             solver.getEngine().flush();
             stack.forEach(solver::unpost);
             if (objectives.length == 1) {
-                return Collections.singletonList(new int[]{optimal0});
+                int[] paretoPoint = new int[]{optimal0};
+                if (listener != null) {
+                    listener.added(paretoPoint);
+                }
+                return Collections.singletonList(paretoPoint);
             } else {
                 stack.clear();
                 List<int[]> paretoPoints = new ArrayList<>();
                 Constraint same0 = ICF.arithm(objectives[0], "=", optimal0);
                 solver.post(same0);
                 for (int[] same0ParetoPoints : classic(solver, Arrays.copyOfRange(objectives, 1, objectives.length))) {
-                    paretoPoints.add(cons(optimal0, same0ParetoPoints));
+                    int[] paretoPoint = cons(optimal0, same0ParetoPoints);
+                    paretoPoints.add(paretoPoint);
+                    if (listener != null) {
+                        listener.added(paretoPoint);
+                    }
                     Constraint[] better = new Constraint[objectives.length - 1];
                     for (int i = 0; i < better.length; i++) {
                         better[i] = ICF.arithm(objectives[i + 1], ">", same0ParetoPoints[i]);
@@ -106,7 +267,7 @@ public class Moo {
                     solver.post(improve);
                 }
                 solver.unpost(same0);
-                paretoPoints.addAll(classic(solver, objectives));
+                paretoPoints.addAll(classic(solver, listener, objectives));
                 stack.forEach(solver::unpost);
                 return paretoPoints;
             }
@@ -115,4 +276,143 @@ public class Moo {
         solver.getEngine().flush();
         return Collections.emptyList();
     }
+
+    /**
+     * A parallel classic. Every subproblem fixes a prefix of the objectives
+     * and bounds the next objective from above. Once that objective is
+     * maximized, the subproblem splits into two independent subproblems, one
+     * fixing it at its maximum and one below the maximum, forked on a
+     * fork-join pool. Each worker thread builds its own solver with model,
+     * and every solver prunes with the points found by all the others so that
+     * points dominated across subproblems are never kept.
+     */
+    public static List<int[]> decompose(Function<Solver, IntVar[]> model, int parallelism) {
+        return decompose(model, parallelism, null);
+    }
+
+    /**
+     * @param listener notified of the changes to the shared front, one thread
+     * at a time, or null
+     */
+    public static List<int[]> decompose(Function<Solver, IntVar[]> model, int parallelism, ParetoListener listener) {
+        Decomposition decomposition = new Decomposition(model, listener);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(decomposition.new Box(new int[0], Integer.MAX_VALUE));
+        } finally {
+            pool.shutdownNow();
+        }
+        return decomposition.shared().getPoints();
+    }
+
+    private static class Decomposition {
+
+        private final Function<Solver, IntVar[]> model;
+        private final ParetoListener listener;
+        /* Sized by the first worker, rather than by a model built only to count the objectives. */
+        private ConcurrentParetoArchive shared;
+        private final AtomicBoolean limited = new AtomicBoolean(false);
+        private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+
+        Decomposition(Function<Solver, IntVar[]> model, ParetoListener listener) {
+            this.model = model;
+            this.listener = listener;
+        }
+
+        synchronized ConcurrentParetoArchive shared(int dimensions) {
+            if (shared == null) {
+                shared = new ConcurrentParetoArchive(dimensions);
+                shared.setListener(listener);
+            }
+            return shared;
+        }
+
+        synchronized ConcurrentParetoArchive shared() {
+            return shared;
+        }
+
+        private class Worker {
+
+            private final Solver solver = SolverFactory.makeSolver();
+            private final IntVar[] objectives = model.apply(solver);
+            private final ConcurrentParetoArchive shared = shared(objectives.length);
+            private final PropPareto pareto = new PropPareto(objectives);
+            private int version = 0;
+
+            Worker() {
+                solver.post(new Constraint("Pareto", pareto));
+                solver.plugMonitor(new IMonitorOpenNode() {
+
+                    @Override
+                    public void beforeOpenNode() {
+                        if (limited.get()) {
+                            solver.getSearchLoop().interrupt("Decomposition limit", false);
+                        }
+                        version = shared.pull(version, pareto::addPoint);
+                    }
+
+                    @Override
+                    public void afterOpenNode() {
+                    }
+                });
+            }
+        }
+
+        private class Box extends RecursiveAction {
+
+            private final int[] prefix;
+            private final int upper;
+
+            Box(int[] prefix, int upper) {
+                this.prefix = prefix;
+                this.upper = upper;
+            }
+
+            @Override
+            protected void compute() {
+                if (limited.get()) {
+                    return;
+                }
+                Worker worker = workers.get();
+                Solver solver = worker.solver;
+                IntVar[] objectives = worker.objectives;
+                int next = prefix.length;
+
+                List<Constraint> stack = new ArrayList<>();
+                for (int i = 0; i < next; i++) {
+                    stack.add(ICF.arithm(objectives[i], "=", prefix[i]));
+                }
+                if (upper != Integer.MAX_VALUE) {
+                    stack.add(ICF.arithm(objectives[next], "<", upper));
+                }
+                stack.forEach(solver::post);
+
+                boolean found = false;
+                int optimal = 0;
+                if (solver.findSolution()) {
+                    do {
+                        found = true;
+                        optimal = objectives[next].getValue();
+                        worker.shared.add(worker.pareto.addSolution());
+                        Constraint better = ICF.arithm(objectives[next], ">", optimal);
+                        stack.add(better);
+                        solver.post(better);
+                    } while (solver.nextSolution());
+                }
+                if (solver.hasReachedLimit()) {
+                    limited.set(true);
+                }
+                solver.getSearchLoop().reset();
+                solver.getEngine().flush();
+                stack.forEach(solver::unpost);
+
+                // Below the maximum of the last objective everything is dominated.
+                if (found && next + 1 < objectives.length) {
+                    int[] same = Arrays.copyOf(prefix, next + 1);
+                    same[next] = optimal;
+                    invokeAll(new Box(same, Integer.MAX_VALUE), new Box(prefix, optimal));
+                }
+            }
+        }
+    }
 }
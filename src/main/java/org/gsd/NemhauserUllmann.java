@@ -0,0 +1,200 @@
+package org.gsd;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Exact Pareto front of a multi-objective 0/1 knapsack by dynamic
+ * programming, maximizing the energies like Moo.oia. The items are added one
+ * at a time to a set of states, the weight and energies of partial
+ * solutions, each state either taking the item or not. A state is dropped
+ * when another one is at most as heavy with at least as much energy, or when
+ * a bound on everything it could still gain is weakly dominated by a
+ * solution already found. The energies of the states are all solutions, so
+ * the front is the archive of those seen along the way.
+ *
+ * @author jimmy
+ */
+public class NemhauserUllmann {
+
+    public static List<int[]> pareto(KnapsackProblem problem) {
+        return pareto(problem, 1, new Budget(), null);
+    }
+
+    /**
+     * @param parallelism the threads bounding the states, 1 for the calling
+     * thread only
+     * @param budget stops adding items once exhausted, the front then being
+     * the best found so far
+     * @param listener notified of every point as soon as it is found and of
+     * every point dominated later on, or null
+     */
+    public static List<int[]> pareto(KnapsackProblem problem, int parallelism, Budget budget,
+            ParetoListener listener) {
+        budget.start();
+        int objectives = problem.getNumberOfObjectives();
+        int capacity = problem.getCapacity();
+        int[] weights = problem.getWeights();
+        int[][] energies = problem.getEnergies();
+        int[] order = order(problem);
+        Bounds bounds = new Bounds(problem, order);
+
+        ParetoArchive<Void> archive = new ParetoArchive<>(objectives);
+        archive.setListener(listener);
+        archive.add(new int[objectives]);
+
+        /* Every state is the opposite of its weight, then its energies. */
+        int[][] states = {new int[objectives + 1]};
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        try {
+            for (int position = 0; position < order.length && states.length > 0; position++) {
+                if (budget.isExhausted()) {
+                    break;
+                }
+                int item = order[position];
+                int[][] candidates = Arrays.copyOf(states, 2 * states.length);
+                int size = states.length;
+                for (int[] state : states) {
+                    if (capacity + state[0] >= weights[item]) {
+                        int[] taken = new int[objectives + 1];
+                        taken[0] = state[0] - weights[item];
+                        for (int k = 0; k < objectives; k++) {
+                            taken[k + 1] = state[k + 1] + energies[k][item];
+                        }
+                        candidates[size++] = taken;
+                    }
+                }
+                candidates = Arrays.copyOf(candidates, size);
+                /*
+                 * A state with room for every remaining item can take them
+                 * all, so it is only compared by energy with the others like
+                 * it: their weights are raised to leave just that room.
+                 */
+                int heaviest = bounds.room(position + 1) - capacity;
+                for (int[] candidate : candidates) {
+                    candidate[0] = Math.min(candidate[0], heaviest);
+                }
+
+                int[] kept = ParetoFilter.nonDominated(candidates);
+                for (int i : kept) {
+                    if (i >= states.length) {
+                        archive.add(Arrays.copyOfRange(candidates[i], 1, objectives + 1));
+                    }
+                }
+
+                int next = position + 1;
+                int[][] current = candidates;
+                IntStream survivors = IntStream.of(kept)
+                        .filter(i -> !archive.isDominated(bounds.upper(current[i], next)));
+                int[] alive = pool == null
+                        ? survivors.toArray()
+                        : pool.submit(() -> survivors.parallel().toArray()).join();
+                states = new int[alive.length][];
+                for (int i = 0; i < alive.length; i++) {
+                    states[i] = candidates[alive[i]];
+                }
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+        return archive.getPoints();
+    }
+
+    /*
+     * The items with the most energy per weight first, their energies scaled
+     * by the total of their objective, so that good solutions are found early
+     * and prune the rest.
+     */
+    private static int[] order(KnapsackProblem problem) {
+        int[] weights = problem.getWeights();
+        int[][] energies = problem.getEnergies();
+        double[] totals = new double[energies.length];
+        for (int k = 0; k < energies.length; k++) {
+            for (int energy : energies[k]) {
+                totals[k] += energy;
+            }
+        }
+        double[] scores = new double[weights.length];
+        Integer[] order = new Integer[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            order[i] = i;
+            for (int k = 0; k < energies.length; k++) {
+                scores[i] += totals[k] == 0 ? 0 : energies[k][i] / totals[k];
+            }
+            scores[i] /= Math.max(weights[i], 1);
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(scores[b], scores[a]));
+        return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+    }
+
+    /*
+     * What a state can still gain in every objective from the items at and
+     * after a position: their total energy, and at most the remaining
+     * capacity times their best energy per weight. The best ratio is kept as
+     * a fraction so that the bound is exact.
+     */
+    private static class Bounds {
+
+        private final int capacity;
+        private final int objectives;
+        private final long[] room;
+        private final long[][] remaining;
+        private final long[][] energies;
+        private final long[][] weights;
+
+        Bounds(KnapsackProblem problem, int[] order) {
+            this.capacity = problem.getCapacity();
+            this.objectives = problem.getNumberOfObjectives();
+            this.room = new long[order.length + 1];
+            this.remaining = new long[order.length + 1][objectives];
+            this.energies = new long[order.length + 1][objectives];
+            this.weights = new long[order.length + 1][objectives];
+            for (long[] weight : weights) {
+                Arrays.fill(weight, 1);
+            }
+            for (int position = order.length - 1; position >= 0; position--) {
+                int item = order[position];
+                int weight = problem.getWeights()[item];
+                room[position] = room[position + 1] + (weight <= capacity ? weight : 0);
+                for (int k = 0; k < objectives; k++) {
+                    int energy = problem.getEnergies()[k][item];
+                    remaining[position][k] = remaining[position + 1][k];
+                    energies[position][k] = energies[position + 1][k];
+                    weights[position][k] = weights[position + 1][k];
+                    if (weight <= capacity) {
+                        remaining[position][k] += energy;
+                        if ((long) energy * weights[position][k] > energies[position][k] * weight) {
+                            energies[position][k] = energy;
+                            weights[position][k] = weight;
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return the total weight of the items at and after position that
+         * fit in the knapsack, at most the capacity
+         */
+        int room(int position) {
+            return (int) Math.min(capacity, room[position]);
+        }
+
+        int[] upper(int[] state, int position) {
+            long slack = capacity + state[0];
+            int[] upper = new int[objectives];
+            for (int k = 0; k < objectives; k++) {
+                long gain = remaining[position][k];
+                if (weights[position][k] > 0) {
+                    gain = Math.min(gain, slack * energies[position][k] / weights[position][k]);
+                }
+                upper[k] = (int) Math.min(Integer.MAX_VALUE, state[k + 1] + gain);
+            }
+            return upper;
+        }
+    }
+}
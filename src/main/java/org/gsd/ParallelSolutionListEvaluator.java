@@ -0,0 +1,130 @@
+package org.gsd;
+
+import java.util.List;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.uma.jmetal.problem.ConstrainedProblem;
+import org.uma.jmetal.problem.Problem;
+import org.uma.jmetal.solution.Solution;
+import org.uma.jmetal.util.JMetalException;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+
+/**
+ * Evaluates a list of solutions on a fixed set of threads. The threads are
+ * started once and woken up for every list. They claim chunks of the list
+ * from a shared cursor until none is left, so nothing is allocated per list
+ * and faster threads simply take more chunks. Every solution is evaluated
+ * exactly as SequentialSolutionListEvaluator does, so the results are the
+ * same.
+ *
+ * @author jimmy
+ * @param <S> the solution type
+ */
+public class ParallelSolutionListEvaluator<S extends Solution<?>> implements SolutionListEvaluator<S> {
+
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final int threads;
+    private final Thread[] workers;
+    private final Phaser phaser;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private volatile List<S> solutions;
+    private volatile Problem<S> problem;
+    private volatile int chunk;
+    private volatile boolean shutdown = false;
+    private volatile RuntimeException failure;
+
+    /**
+     * @param threads the number of threads evaluating, including the caller of
+     * evaluate
+     */
+    public ParallelSolutionListEvaluator(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.threads = threads;
+        this.workers = new Thread[threads - 1];
+        this.phaser = new Phaser(threads);
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Thread(this::work, "evaluator-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    @Override
+    public List<S> evaluate(List<S> solutionList, Problem<S> problem) {
+        if (shutdown) {
+            throw new IllegalStateException("Evaluator is shutdown");
+        }
+        if (solutionList.size() < 2 * threads) {
+            for (S solution : solutionList) {
+                evaluate(solution, problem);
+            }
+            return solutionList;
+        }
+        this.solutions = solutionList;
+        this.problem = problem;
+        this.chunk = Math.max(1, solutionList.size() / (threads * CHUNKS_PER_THREAD));
+        this.failure = null;
+        cursor.set(0);
+
+        phaser.arriveAndAwaitAdvance();
+        evaluateChunks();
+        phaser.arriveAndAwaitAdvance();
+
+        this.solutions = null;
+        this.problem = null;
+        if (failure != null) {
+            throw new JMetalException("Evaluation failed", failure);
+        }
+        return solutionList;
+    }
+
+    @Override
+    public void shutdown() {
+        if (!shutdown) {
+            shutdown = true;
+            phaser.arriveAndDeregister();
+        }
+    }
+
+    private void work() {
+        while (true) {
+            phaser.arriveAndAwaitAdvance();
+            if (shutdown) {
+                phaser.arriveAndDeregister();
+                return;
+            }
+            evaluateChunks();
+            phaser.arriveAndAwaitAdvance();
+        }
+    }
+
+    private void evaluateChunks() {
+        List<S> list = solutions;
+        Problem<S> p = problem;
+        int size = list.size();
+        int start;
+        try {
+            while ((start = cursor.getAndAdd(chunk)) < size) {
+                int end = Math.min(start + chunk, size);
+                for (int i = start; i < end; i++) {
+                    evaluate(list.get(i), p);
+                }
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+            // Let the other threads run out of chunks.
+            cursor.set(size);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <S extends Solution<?>> void evaluate(S solution, Problem<S> problem) {
+        problem.evaluate(solution);
+        if (problem instanceof ConstrainedProblem) {
+            ((ConstrainedProblem<S>) problem).evaluateConstraints(solution);
+        }
+    }
+}
@@ -0,0 +1,495 @@
+package org.gsd;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A set of mutually non-dominated integer points, maximizing every dimension.
+ * Points are kept in an ND-tree: leaves store their coordinates in one flat
+ * int array and every node keeps the bounding box of its subtree so that
+ * dominance queries can skip or accept whole subtrees at once.
+ *
+ * @author jimmy
+ * @param <T> the value attached to each point
+ */
+public class ParetoArchive<T> {
+
+    private static final int LEAF_CAPACITY = 20;
+
+    private final int dimensions;
+    private final int branching;
+    private Node root;
+    private int size = 0;
+    private ParetoListener listener;
+
+    public ParetoArchive(int dimensions) {
+        if (dimensions < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.dimensions = dimensions;
+        this.branching = Math.min(dimensions + 1, LEAF_CAPACITY);
+        this.root = new Node();
+    }
+
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    /**
+     * @param listener notified of every point added to and removed from the
+     * archive, or null
+     */
+    public void setListener(ParetoListener listener) {
+        this.listener = listener;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return true if some point in the archive is greater or equal to point
+     * in every dimension
+     */
+    public boolean isDominated(int[] point) {
+        checkDimensions(point);
+        return size > 0 && isDominated(root, point);
+    }
+
+    /**
+     * Removes every point in the archive that is smaller or equal to point in
+     * every dimension.
+     *
+     * @return the number of points removed
+     */
+    public int removeDominated(int[] point) {
+        checkDimensions(point);
+        if (size == 0) {
+            return 0;
+        }
+        int removed = removeDominated(root, point);
+        size -= removed;
+        if (root.count() == 0) {
+            root = new Node();
+        }
+        return removed;
+    }
+
+    /**
+     * @return the largest value in the given dimension among the points that
+     * are greater or equal to bound in every other dimension, or
+     * Integer.MIN_VALUE if there are none
+     */
+    public int max(int dimension, int[] bound) {
+        checkDimensions(bound);
+        return size == 0 ? Integer.MIN_VALUE : max(root, dimension, bound, Integer.MIN_VALUE);
+    }
+
+    public boolean add(int[] point) {
+        return add(point, null);
+    }
+
+    /**
+     * Adds point unless it is weakly dominated by the archive, removing every
+     * point it weakly dominates.
+     *
+     * @return true if the point was added
+     */
+    public boolean add(int[] point, T value) {
+        if (isDominated(point)) {
+            return false;
+        }
+        removeDominated(point);
+        insert(point, value);
+        if (listener != null) {
+            listener.added(point);
+        }
+        return true;
+    }
+
+    public List<int[]> getPoints() {
+        List<int[]> points = new ArrayList<>(size);
+        collect(root, points, null);
+        return points;
+    }
+
+    public List<T> getValues() {
+        List<T> values = new ArrayList<>(size);
+        collect(root, null, values);
+        return values;
+    }
+
+    public void clear() {
+        root = new Node();
+        size = 0;
+    }
+
+    private void checkDimensions(int[] point) {
+        if (point.length != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " dimensions but got " + point.length);
+        }
+    }
+
+    private boolean isDominated(Node node, int[] point) {
+        if (!covers(node.upper, point)) {
+            return false;
+        }
+        if (covers(node.lower, point)) {
+            return true;
+        }
+        if (node.isLeaf()) {
+            for (int i = 0; i < node.size; i++) {
+                if (covers(node.points, i * dimensions, point)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (int i = 0; i < node.childCount; i++) {
+            if (isDominated(node.children[i], point)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int max(Node node, int dimension, int[] bound, int max) {
+        if (node.upper[dimension] <= max) {
+            return max;
+        }
+        boolean all = true;
+        for (int i = 0; i < dimensions; i++) {
+            if (i != dimension) {
+                if (node.upper[i] < bound[i]) {
+                    return max;
+                }
+                all &= node.lower[i] >= bound[i];
+            }
+        }
+        if (all) {
+            return node.upper[dimension];
+        }
+        if (node.isLeaf()) {
+            for (int p = 0; p < node.size; p++) {
+                int offset = p * dimensions;
+                if (node.points[offset + dimension] > max) {
+                    boolean covers = true;
+                    for (int i = 0; i < dimensions && covers; i++) {
+                        covers = i == dimension || node.points[offset + i] >= bound[i];
+                    }
+                    if (covers) {
+                        max = node.points[offset + dimension];
+                    }
+                }
+            }
+        } else {
+            for (int i = 0; i < node.childCount; i++) {
+                max = max(node.children[i], dimension, bound, max);
+            }
+        }
+        return max;
+    }
+
+    private int removeDominated(Node node, int[] point) {
+        if (!covers(point, node.lower)) {
+            return 0;
+        }
+        int count = node.count();
+        if (covers(point, node.upper)) {
+            if (listener != null) {
+                List<int[]> points = new ArrayList<>(count);
+                collect(node, points, null);
+                points.forEach(listener::removed);
+            }
+            node.empty();
+            return count;
+        }
+        int removed = 0;
+        if (node.isLeaf()) {
+            int i = 0;
+            while (i < node.size) {
+                if (covers(point, 0, node.points, i * dimensions)) {
+                    if (listener != null) {
+                        listener.removed(node.slice(i));
+                    }
+                    node.removePoint(i);
+                    removed++;
+                } else {
+                    i++;
+                }
+            }
+        } else {
+            int i = 0;
+            while (i < node.childCount) {
+                Node child = node.children[i];
+                removed += removeDominated(child, point);
+                if (child.count() == 0) {
+                    node.removeChild(i);
+                } else {
+                    i++;
+                }
+            }
+        }
+        if (removed > 0) {
+            node.total -= removed;
+            node.recomputeBounds();
+        }
+        return removed;
+    }
+
+    private void insert(int[] point, T value) {
+        Node node = root;
+        while (true) {
+            node.include(point);
+            node.total++;
+            if (node.isLeaf()) {
+                break;
+            }
+            Node closest = node.children[0];
+            double closestDistance = distance(closest, point);
+            for (int i = 1; i < node.childCount; i++) {
+                double distance = distance(node.children[i], point);
+                if (distance < closestDistance) {
+                    closest = node.children[i];
+                    closestDistance = distance;
+                }
+            }
+            node = closest;
+        }
+        node.addPoint(point, 0, value);
+        size++;
+        if (node.size > LEAF_CAPACITY) {
+            node.split();
+        }
+    }
+
+    private void collect(Node node, List<int[]> points, List<T> values) {
+        if (node.isLeaf()) {
+            for (int i = 0; i < node.size; i++) {
+                if (points != null) {
+                    points.add(Arrays.copyOfRange(node.points, i * dimensions, (i + 1) * dimensions));
+                }
+                if (values != null) {
+                    values.add(node.value(i));
+                }
+            }
+        } else {
+            for (int i = 0; i < node.childCount; i++) {
+                collect(node.children[i], points, values);
+            }
+        }
+    }
+
+    /**
+     * Squared distance from point to the middle of the bounding box of node.
+     */
+    private double distance(Node node, int[] point) {
+        double distance = 0;
+        for (int i = 0; i < dimensions; i++) {
+            double delta = 2.0 * point[i] - node.lower[i] - node.upper[i];
+            distance += delta * delta;
+        }
+        return distance;
+    }
+
+    private boolean covers(int[] a, int[] b) {
+        return covers(a, 0, b, 0);
+    }
+
+    private boolean covers(int[] a, int aOffset, int[] b) {
+        return covers(a, aOffset, b, 0);
+    }
+
+    /**
+     * @return true if a is greater or equal to b in every dimension
+     */
+    private boolean covers(int[] a, int aOffset, int[] b, int bOffset) {
+        for (int i = 0; i < dimensions; i++) {
+            if (a[aOffset + i] < b[bOffset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private class Node {
+
+        private final int[] lower;
+        private final int[] upper;
+        // Internal nodes.
+        private Node[] children;
+        private int childCount = 0;
+        private int total = 0;
+        // Leaf nodes.
+        private int[] points;
+        private Object[] values;
+        private int size = 0;
+
+        Node() {
+            this.lower = new int[dimensions];
+            this.upper = new int[dimensions];
+            Arrays.fill(lower, Integer.MAX_VALUE);
+            Arrays.fill(upper, Integer.MIN_VALUE);
+            this.points = new int[(LEAF_CAPACITY + 1) * dimensions];
+            this.values = new Object[LEAF_CAPACITY + 1];
+        }
+
+        boolean isLeaf() {
+            return children == null;
+        }
+
+        int count() {
+            return isLeaf() ? size : total;
+        }
+
+        @SuppressWarnings("unchecked")
+        T value(int index) {
+            return (T) values[index];
+        }
+
+        void include(int[] point) {
+            for (int i = 0; i < dimensions; i++) {
+                lower[i] = Math.min(lower[i], point[i]);
+                upper[i] = Math.max(upper[i], point[i]);
+            }
+        }
+
+        void addPoint(int[] source, int offset, Object value) {
+            System.arraycopy(source, offset, points, size * dimensions, dimensions);
+            values[size] = value;
+            size++;
+        }
+
+        void removePoint(int index) {
+            size--;
+            System.arraycopy(points, size * dimensions, points, index * dimensions, dimensions);
+            values[index] = values[size];
+            values[size] = null;
+        }
+
+        void removeChild(int index) {
+            childCount--;
+            children[index] = children[childCount];
+            children[childCount] = null;
+        }
+
+        void empty() {
+            children = null;
+            childCount = 0;
+            total = 0;
+            size = 0;
+            points = new int[(LEAF_CAPACITY + 1) * dimensions];
+            values = new Object[LEAF_CAPACITY + 1];
+        }
+
+        void recomputeBounds() {
+            Arrays.fill(lower, Integer.MAX_VALUE);
+            Arrays.fill(upper, Integer.MIN_VALUE);
+            if (isLeaf()) {
+                for (int p = 0; p < size; p++) {
+                    for (int i = 0; i < dimensions; i++) {
+                        int value = points[p * dimensions + i];
+                        lower[i] = Math.min(lower[i], value);
+                        upper[i] = Math.max(upper[i], value);
+                    }
+                }
+            } else {
+                for (int c = 0; c < childCount; c++) {
+                    include(children[c].lower);
+                    include(children[c].upper);
+                }
+            }
+        }
+
+        /*
+         * Turns an overfull leaf into an internal node. The children are seeded
+         * with points far apart from each other and every other point joins
+         * the closest seed.
+         */
+        void split() {
+            int[] seeds = new int[branching];
+            boolean[] seeded = new boolean[size];
+            double[] nearest = new double[size];
+            Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+
+            int first = 0;
+            double firstDistance = -1;
+            for (int p = 0; p < size; p++) {
+                double distance = 0;
+                for (int q = 0; q < size; q++) {
+                    distance += pointDistance(p, q);
+                }
+                if (distance > firstDistance) {
+                    first = p;
+                    firstDistance = distance;
+                }
+            }
+            seeds[0] = first;
+            seeded[first] = true;
+            for (int s = 1; s < seeds.length; s++) {
+                int next = -1;
+                double nextDistance = -1;
+                for (int p = 0; p < size; p++) {
+                    if (!seeded[p]) {
+                        nearest[p] = Math.min(nearest[p], pointDistance(p, seeds[s - 1]));
+                        if (nearest[p] > nextDistance) {
+                            next = p;
+                            nextDistance = nearest[p];
+                        }
+                    }
+                }
+                seeds[s] = next;
+                seeded[next] = true;
+            }
+
+            @SuppressWarnings("unchecked")
+            Node[] split = (Node[]) new ParetoArchive<?>.Node[branching];
+            for (int s = 0; s < seeds.length; s++) {
+                split[s] = new Node();
+                split[s].include(slice(seeds[s]));
+                split[s].addPoint(points, seeds[s] * dimensions, values[seeds[s]]);
+            }
+            for (int p = 0; p < size; p++) {
+                if (!seeded[p]) {
+                    int[] point = slice(p);
+                    Node closest = split[0];
+                    double closestDistance = distance(closest, point);
+                    for (int s = 1; s < split.length; s++) {
+                        double distance = distance(split[s], point);
+                        if (distance < closestDistance) {
+                            closest = split[s];
+                            closestDistance = distance;
+                        }
+                    }
+                    closest.include(point);
+                    closest.addPoint(points, p * dimensions, values[p]);
+                }
+            }
+
+            total = size;
+            size = 0;
+            points = null;
+            values = null;
+            children = split;
+            childCount = split.length;
+        }
+
+        private int[] slice(int index) {
+            return Arrays.copyOfRange(points, index * dimensions, (index + 1) * dimensions);
+        }
+
+        private double pointDistance(int p, int q) {
+            double distance = 0;
+            for (int i = 0; i < dimensions; i++) {
+                double delta = (double) points[p * dimensions + i] - points[q * dimensions + i];
+                distance += delta * delta;
+            }
+            return distance;
+        }
+    }
+}
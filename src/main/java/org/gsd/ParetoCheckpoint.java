@@ -0,0 +1,224 @@
+package org.gsd;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.search.loop.monitors.IMonitorOpenNode;
+
+/**
+ * Saves the front of an exact search and its statistics to a file, every
+ * interval and once the search ends, so that a search killed or out of
+ * budget resumes where it stopped: the saved points are archived again
+ * before the search restarts, pruning everything they dominate, and a
+ * complete search is not run again. The statistics add up over the runs.
+ * The search only reads a volatile flag at every node, set every interval by
+ * a scheduler thread.
+ *
+ * The file is written through a temporary file moved in place, so that a
+ * process killed while saving leaves the previous checkpoint intact. It
+ * holds the points as searched, so a resumed search must model the same
+ * problem with the same objectives.
+ *
+ * @author jimmy
+ */
+public class ParetoCheckpoint {
+
+    private static final int MAGIC = 0x50415231;
+    private static final int VERSION = 1;
+
+    private static final ScheduledThreadPoolExecutor SCHEDULER = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "ParetoCheckpoint");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        SCHEDULER.setRemoveOnCancelPolicy(true);
+    }
+
+    private final Path path;
+    private final long interval;
+
+    private List<int[]> points = Collections.emptyList();
+    private boolean complete = false;
+    private long solutions = 0;
+    private long nodes = 0;
+    private long fails = 0;
+    private long time = 0;
+
+    /* When this run started. */
+    private long start;
+    private volatile boolean due = false;
+    private ScheduledFuture<?> timer = null;
+
+    /**
+     * @param interval the milliseconds between two saves while searching
+     */
+    public ParetoCheckpoint(Path path, long interval) throws IOException {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Interval must be positive: " + interval);
+        }
+        this.path = path;
+        this.interval = interval;
+        this.start = System.currentTimeMillis();
+        if (Files.exists(path)) {
+            read(ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN));
+        }
+    }
+
+    private void read(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < 16 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a checkpoint: " + path);
+        }
+        if (buffer.getInt() != VERSION) {
+            throw new IOException("Unsupported checkpoint version: " + path);
+        }
+        int dimensions = buffer.getInt();
+        int count = buffer.getInt();
+        if (buffer.remaining() != 4 + 4 * 8 + 4L * dimensions * count) {
+            throw new IOException("Truncated checkpoint: " + path);
+        }
+        complete = buffer.getInt() != 0;
+        solutions = buffer.getLong();
+        nodes = buffer.getLong();
+        fails = buffer.getLong();
+        time = buffer.getLong();
+        points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int[] point = new int[dimensions];
+            buffer.asIntBuffer().get(point);
+            buffer.position(buffer.position() + 4 * dimensions);
+            points.add(point);
+        }
+    }
+
+    /**
+     * @return the points saved last, maximized
+     */
+    public List<int[]> getPoints() {
+        return points;
+    }
+
+    /**
+     * @return whether the search saved last was complete, its points then
+     * being the whole front
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public long getSolutions() {
+        return solutions;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getFails() {
+        return fails;
+    }
+
+    /**
+     * @return the milliseconds searched over all the runs saved
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Archives the saved points for the search to escape, and saves the
+     * archive every interval from then on, unless the search saved was
+     * complete, until stopped.
+     */
+    void resume(Solver solver, PropPareto pareto) {
+        ParetoArchive<Void> archive = pareto.getArchive();
+        for (int[] point : points) {
+            if (point.length != archive.getDimensions()) {
+                throw new IllegalArgumentException("Checkpoint of " + point.length + " objectives: " + path);
+            }
+            archive.add(point);
+        }
+        start = System.currentTimeMillis();
+        if (complete) {
+            return;
+        }
+        timer = SCHEDULER.scheduleAtFixedRate(() -> due = true, interval, interval, TimeUnit.MILLISECONDS);
+        solver.plugMonitor(new IMonitorOpenNode() {
+
+            @Override
+            public void beforeOpenNode() {
+                if (due) {
+                    save(solver, archive, false);
+                }
+            }
+
+            @Override
+            public void afterOpenNode() {
+            }
+        });
+    }
+
+    /**
+     * Cancels the saves every interval, once the search ends.
+     */
+    void stop() {
+        if (timer != null) {
+            timer.cancel(false);
+            timer = null;
+        }
+    }
+
+    /**
+     * Writes the archive and the statistics of the solver on top of those
+     * of the previous runs.
+     */
+    void save(Solver solver, ParetoArchive<Void> archive, boolean complete) {
+        due = false;
+        long now = System.currentTimeMillis();
+        List<int[]> saved = archive.getPoints();
+        int dimensions = archive.getDimensions();
+        ByteBuffer buffer = ByteBuffer.allocate(5 * 4 + 4 * 8 + 4 * dimensions * saved.size())
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(dimensions).putInt(saved.size()).putInt(complete ? 1 : 0);
+        buffer.putLong(solutions + solver.getMeasures().getSolutionCount());
+        buffer.putLong(nodes + solver.getMeasures().getNodeCount());
+        buffer.putLong(fails + solver.getMeasures().getFailCount());
+        buffer.putLong(time + now - start);
+        for (int[] point : saved) {
+            for (int p : point) {
+                buffer.putInt(p);
+            }
+        }
+        buffer.flip();
+        try {
+            Path directory = path.toAbsolutePath().getParent();
+            Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
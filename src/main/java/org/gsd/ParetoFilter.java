@@ -0,0 +1,168 @@
+package org.gsd;
+
+import java.util.Arrays;
+
+/**
+ * Extracts the non-dominated points of a set in one go, maximizing every
+ * dimension like ParetoArchive. The points are sorted lexicographically
+ * decreasing, which drops duplicates and leaves every point only dominated by
+ * points before it, all of them at least as good in the first dimension. So
+ * a single sweep decides every point by a dominance query on the remaining
+ * dimensions of the points kept so far: a running maximum in two dimensions,
+ * a staircase in three and a ParetoArchive above.
+ *
+ * @author jimmy
+ */
+public class ParetoFilter {
+
+    /**
+     * @return the indices of the points that are not weakly dominated by
+     * another point, keeping the first index of duplicates, in lexicographic
+     * decreasing order
+     */
+    public static int[] nonDominated(int[][] points) {
+        if (points.length == 0) {
+            return new int[0];
+        }
+        int dimensions = points[0].length;
+        for (int[] point : points) {
+            if (point.length != dimensions) {
+                throw new IllegalArgumentException();
+            }
+        }
+        int[] order = sort(points);
+        switch (dimensions) {
+            case 1:
+                return Arrays.copyOf(order, 1);
+            case 2:
+                return sweep2(points, order);
+            case 3:
+                return sweep3(points, order);
+            default:
+                return sweep(points, order);
+        }
+    }
+
+    /*
+     * Merge sort of the indices, stable so that the first of duplicates comes
+     * first, which then drops the others.
+     */
+    private static int[] sort(int[][] points) {
+        int[] order = new int[points.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        int[] buffer = new int[order.length];
+        for (int width = 1; width < order.length; width *= 2) {
+            for (int low = 0; low < order.length; low += 2 * width) {
+                int middle = Math.min(low + width, order.length);
+                int high = Math.min(low + 2 * width, order.length);
+                int i = low;
+                int j = middle;
+                for (int k = low; k < high; k++) {
+                    buffer[k] = j == high || (i < middle && compare(points[order[i]], points[order[j]]) <= 0)
+                            ? order[i++] : order[j++];
+                }
+            }
+            int[] swap = order;
+            order = buffer;
+            buffer = swap;
+        }
+        int size = 0;
+        for (int i = 0; i < order.length; i++) {
+            if (size == 0 || compare(points[order[size - 1]], points[order[i]]) != 0) {
+                order[size++] = order[i];
+            }
+        }
+        return Arrays.copyOf(order, size);
+    }
+
+    /**
+     * @return negative if a comes first, ie. is lexicographically greater
+     */
+    private static int compare(int[] a, int[] b) {
+        for (int k = 0; k < a.length; k++) {
+            if (a[k] != b[k]) {
+                return Integer.compare(b[k], a[k]);
+            }
+        }
+        return 0;
+    }
+
+    private static int[] sweep2(int[][] points, int[] order) {
+        int size = 0;
+        for (int i : order) {
+            if (size == 0 || points[i][1] > points[order[size - 1]][1]) {
+                order[size++] = i;
+            }
+        }
+        return Arrays.copyOf(order, size);
+    }
+
+    /*
+     * Every point before the current one is at least as good in the first
+     * dimension, so it is dominated iff the staircase of the previous points
+     * projected on the two other dimensions dominates it. The staircase is
+     * kept in two arrays, y increasing and z decreasing.
+     */
+    private static int[] sweep3(int[][] points, int[] order) {
+        int[] ys = new int[order.length];
+        int[] zs = new int[order.length];
+        int steps = 0;
+        int size = 0;
+        for (int i : order) {
+            int y = points[i][1];
+            int z = points[i][2];
+            int first = lowerBound(ys, steps, y);
+            if (first < steps && zs[first] >= z) {
+                continue;
+            }
+            order[size++] = i;
+            /* The steps in [left, right) are dominated by (y, z). */
+            int right = first < steps && ys[first] == y ? first + 1 : first;
+            int left = first;
+            while (left > 0 && zs[left - 1] <= z) {
+                left--;
+            }
+            int removed = right - left;
+            if (removed != 1) {
+                System.arraycopy(ys, right, ys, left + 1, steps - right);
+                System.arraycopy(zs, right, zs, left + 1, steps - right);
+            }
+            ys[left] = y;
+            zs[left] = z;
+            steps += 1 - removed;
+        }
+        return Arrays.copyOf(order, size);
+    }
+
+    /**
+     * @return the index of the first element of ys[0, size) greater or equal
+     * to y
+     */
+    private static int lowerBound(int[] ys, int size, int y) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ys[middle] < y) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int[] sweep(int[][] points, int[] order) {
+        int dimensions = points[order[0]].length;
+        ParetoArchive<Void> projections = new ParetoArchive<>(dimensions - 1);
+        int size = 0;
+        for (int i : order) {
+            if (projections.add(Arrays.copyOfRange(points[i], 1, dimensions))) {
+                order[size++] = i;
+            }
+        }
+        return Arrays.copyOf(order, size);
+    }
+}
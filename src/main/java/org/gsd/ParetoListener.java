@@ -0,0 +1,20 @@
+package org.gsd;
+
+/**
+ * Notified of the changes to a Pareto front while it is being searched.
+ *
+ * @author jimmy
+ */
+public interface ParetoListener {
+
+    /**
+     * A new point joined the front. The array must not be modified.
+     */
+    void added(int[] point);
+
+    /**
+     * A point that was added before is dominated by a newer one and left the
+     * front. The array must not be modified.
+     */
+    void removed(int[] point);
+}
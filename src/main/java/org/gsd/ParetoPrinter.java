@@ -0,0 +1,48 @@
+package org.gsd;
+
+import java.io.PrintStream;
+
+/**
+ * Writes every point of a front to out as soon as it is found, in the same
+ * "p1 p2 ... ;" format as the final fronts, and flushes. Points dominated later
+ * on are written again prefixed by "dominated", so replaying the lines in
+ * order yields the current front.
+ *
+ * @author jimmy
+ */
+public class ParetoPrinter implements ParetoListener {
+
+    public static final String DOMINATED = "dominated ";
+
+    private final PrintStream out;
+    private final boolean negate;
+
+    /**
+     * @param negate whether to negate the points before writing them, for
+     * engines that maximize fronts written as minimized
+     */
+    public ParetoPrinter(PrintStream out, boolean negate) {
+        this.out = out;
+        this.negate = negate;
+    }
+
+    @Override
+    public synchronized void added(int[] point) {
+        print("", point);
+    }
+
+    @Override
+    public synchronized void removed(int[] point) {
+        print(DOMINATED, point);
+    }
+
+    private void print(String prefix, int[] point) {
+        StringBuilder line = new StringBuilder(prefix);
+        for (int p : point) {
+            line.append(negate ? -p : p).append(' ');
+        }
+        line.append(';');
+        out.println(line);
+        out.flush();
+    }
+}
@@ -0,0 +1,178 @@
+package org.gsd;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.events.IntEventType;
+import org.chocosolver.util.ESat;
+
+/**
+ * Bounds every energy of a knapsack by its linear relaxation, and fixes the
+ * items that the lower bounds of the energies leave no choice for.
+ *
+ * @author jimmy
+ */
+public class PropKnapsackBound extends Propagator<IntVar> {
+
+    private final int n;
+    private final int[] weights;
+    private final int[][] energies;
+    /* The items by decreasing energy per weight, for every objective. */
+    private final int[][] orders;
+    private final long[] fixed;
+    private final boolean[] full;
+
+    public PropKnapsackBound(IntVar[] occurences, IntVar totalWeight, IntVar[] totalEnergies, int[] weights, int[][] energies) {
+        super(vars(occurences, totalWeight, totalEnergies), PropagatorPriority.LINEAR, false);
+        if (totalEnergies.length != energies.length) {
+            throw new IllegalArgumentException();
+        }
+        this.n = occurences.length;
+        this.weights = weights;
+        this.energies = energies;
+        this.orders = new int[energies.length][];
+        for (int k = 0; k < energies.length; k++) {
+            int[] energy = energies[k];
+            /*
+             * The weightless items first, whatever their energy. Filling the
+             * capacity in this order bounds the energy as long as no weight,
+             * energy or occurence is negative.
+             */
+            orders[k] = IntStream.range(0, n).boxed()
+                    .sorted((a, b) -> weights[a] == 0 || weights[b] == 0
+                            ? Boolean.compare(weights[b] == 0, weights[a] == 0)
+                            : Long.compare((long) energy[b] * weights[a], (long) energy[a] * weights[b]))
+                    .mapToInt(Integer::intValue).toArray();
+        }
+        this.fixed = new long[energies.length];
+        this.full = new boolean[n];
+    }
+
+    static IntVar[] vars(IntVar[] occurences, IntVar totalWeight, IntVar[] totalEnergies) {
+        IntVar[] vars = Arrays.copyOf(occurences, occurences.length + 1 + totalEnergies.length, IntVar[].class);
+        vars[occurences.length] = totalWeight;
+        System.arraycopy(totalEnergies, 0, vars, occurences.length + 1, totalEnergies.length);
+        return vars;
+    }
+
+    @Override
+    public int getPropagationConditions(int vIdx) {
+        if (vIdx < n) {
+            return IntEventType.boundAndInst();
+        }
+        if (vIdx == n) {
+            return IntEventType.DECUPP.getMask() | IntEventType.INSTANTIATE.getMask();
+        }
+        return IntEventType.INCLOW.getMask() | IntEventType.INSTANTIATE.getMask();
+    }
+
+    /*
+     * Fixing an item changes the relaxation, so it is recomputed until
+     * nothing more is fixed.
+     */
+    @Override
+    public void propagate(int evtmask) throws ContradictionException {
+        boolean changed;
+        do {
+            changed = filter();
+        } while (changed);
+    }
+
+    private boolean filter() throws ContradictionException {
+        long room = vars[n].getUB();
+        Arrays.fill(fixed, 0);
+        for (int i = 0; i < n; i++) {
+            long count = vars[i].getLB();
+            if (count > 0) {
+                room -= count * weights[i];
+                for (int k = 0; k < energies.length; k++) {
+                    fixed[k] += count * energies[k][i];
+                }
+            }
+        }
+        if (room < 0) {
+            contradiction(vars[n], "Overweight");
+        }
+        boolean changed = false;
+        for (int k = 0; k < energies.length; k++) {
+            IntVar energy = vars[n + 1 + k];
+            int[] order = orders[k];
+            int[] e = energies[k];
+            /* The free copies taken whole, their energy, and the room left for the critical item. */
+            long total = fixed[k];
+            long left = room;
+            int critical = -1;
+            for (int item : order) {
+                full[item] = false;
+                long copies = (long) vars[item].getUB() - vars[item].getLB();
+                if (critical < 0 && copies > 0) {
+                    if (copies * weights[item] <= left) {
+                        left -= copies * weights[item];
+                        total += copies * e[item];
+                        full[item] = true;
+                    } else {
+                        critical = item;
+                    }
+                }
+            }
+            /* The bound is the total plus left * e[critical] / weights[critical], scaled by the denominator. */
+            long numerator = critical < 0 ? 0 : e[critical];
+            long denominator = critical < 0 ? 1 : weights[critical];
+            long bound = total + left * numerator / denominator;
+            energy.updateUpperBound((int) Math.min(Integer.MAX_VALUE, bound), this);
+
+            long lower = energy.getLB();
+            if (lower <= fixed[k]) {
+                continue;
+            }
+            for (int item : order) {
+                if (vars[item].isInstantiated()) {
+                    continue;
+                }
+                if (full[item]) {
+                    /* Leaving out a copy frees its weight for items worth at most the critical ratio. */
+                    if ((total - e[item] - lower) * denominator + (left + weights[item]) * numerator < 0) {
+                        changed |= vars[item].updateLowerBound(vars[item].getUB(), this);
+                    }
+                } else if (weights[item] > room
+                        || (total + e[item] - lower) * denominator + (left - weights[item]) * numerator < 0) {
+                    /* Taking a copy more gives up its weight of items worth at least the critical ratio. */
+                    changed |= vars[item].updateUpperBound(vars[item].getLB(), this);
+                }
+            }
+            /* The copies taken since are not in the fixed sums of the next objectives. */
+            if (changed) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public ESat isEntailed() {
+        if (!isCompletelyInstantiated()) {
+            return ESat.UNDEFINED;
+        }
+        long weight = 0;
+        long[] totals = new long[energies.length];
+        for (int i = 0; i < n; i++) {
+            long count = vars[i].getValue();
+            weight += count * weights[i];
+            for (int k = 0; k < energies.length; k++) {
+                totals[k] += count * energies[k][i];
+            }
+        }
+        if (weight > vars[n].getValue()) {
+            return ESat.FALSE;
+        }
+        for (int k = 0; k < energies.length; k++) {
+            if (totals[k] < vars[n + 1 + k].getValue()) {
+                return ESat.FALSE;
+            }
+        }
+        return ESat.TRUE;
+    }
+}
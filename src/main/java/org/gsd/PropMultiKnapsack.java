@@ -0,0 +1,138 @@
+package org.gsd;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.IStateInt;
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.events.IntEventType;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
+import org.chocosolver.util.ESat;
+
+/**
+ * Sums the weight and every energy of the items taken in a knapsack, with
+ * backtrackable sums updated from the fine events of the occurences.
+ *
+ * @author jimmy
+ */
+public class PropMultiKnapsack extends Propagator<IntVar> {
+
+    private final int n;
+    /* The weight then the energies of every item. */
+    private final int[][] columns;
+    /* The bounds of the occurences the sums below were computed with. */
+    private final IStateInt[] lows;
+    private final IStateInt[] highs;
+    private final IStateInt[] taken;
+    private final IStateInt[] free;
+
+    public PropMultiKnapsack(IntVar[] occurences, IntVar totalWeight, IntVar[] totalEnergies, int[] weights, int[][] energies) {
+        super(PropKnapsackBound.vars(occurences, totalWeight, totalEnergies), PropagatorPriority.LINEAR, true);
+        if (totalEnergies.length != energies.length) {
+            throw new IllegalArgumentException();
+        }
+        this.n = occurences.length;
+        this.columns = new int[energies.length + 1][];
+        columns[0] = weights;
+        System.arraycopy(energies, 0, columns, 1, energies.length);
+        IEnvironment environment = solver.getEnvironment();
+        this.lows = new IStateInt[n];
+        this.highs = new IStateInt[n];
+        for (int i = 0; i < n; i++) {
+            lows[i] = environment.makeInt(0);
+            highs[i] = environment.makeInt(0);
+        }
+        this.taken = new IStateInt[columns.length];
+        this.free = new IStateInt[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            taken[c] = environment.makeInt(0);
+            free[c] = environment.makeInt(0);
+        }
+    }
+
+    @Override
+    public int getPropagationConditions(int vIdx) {
+        return IntEventType.boundAndInst();
+    }
+
+    /* Brings the sums up to date with the bounds of an occurence. */
+    private void update(int item) {
+        int low = vars[item].getLB();
+        int high = vars[item].getUB();
+        int lowDelta = low - lows[item].get();
+        int highDelta = high - highs[item].get();
+        if (lowDelta == 0 && highDelta == 0) {
+            return;
+        }
+        lows[item].set(low);
+        highs[item].set(high);
+        for (int c = 0; c < columns.length; c++) {
+            int value = columns[c][item];
+            taken[c].add(lowDelta * value);
+            free[c].add((highDelta - lowDelta) * value);
+        }
+    }
+
+    @Override
+    public void propagate(int idxVarInProp, int mask) throws ContradictionException {
+        if (idxVarInProp < n) {
+            update(idxVarInProp);
+        }
+        forcePropagate(PropagatorEventType.CUSTOM_PROPAGATION);
+    }
+
+    @Override
+    public void propagate(int evtmask) throws ContradictionException {
+        /* The sums start from every item, then the fine events report all the changes but those made below. */
+        if (PropagatorEventType.isFullPropagation(evtmask)) {
+            for (int i = 0; i < n; i++) {
+                update(i);
+            }
+        }
+        boolean changed;
+        do {
+            changed = false;
+            for (int c = 0; c < columns.length; c++) {
+                vars[n + c].updateBounds(taken[c].get(), taken[c].get() + free[c].get(), this);
+            }
+            /*
+             * The copies of a free item are at most what fits below the upper
+             * bound of every sum, and at least what the other copies miss to
+             * reach the lower bounds, nothing being negative.
+             */
+            for (int i = 0; i < n; i++) {
+                if (vars[i].isInstantiated()) {
+                    continue;
+                }
+                for (int c = 0; c < columns.length; c++) {
+                    int value = columns[c][i];
+                    if (value == 0) {
+                        continue;
+                    }
+                    int most = vars[i].getLB() + (vars[n + c].getUB() - taken[c].get()) / value;
+                    int least = vars[i].getUB() - (taken[c].get() + free[c].get() - vars[n + c].getLB()) / value;
+                    changed |= vars[i].updateBounds(least, most, this);
+                    update(i);
+                }
+            }
+        } while (changed);
+    }
+
+    @Override
+    public ESat isEntailed() {
+        if (!isCompletelyInstantiated()) {
+            return ESat.UNDEFINED;
+        }
+        for (int c = 0; c < columns.length; c++) {
+            int sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += vars[i].getValue() * columns[c][i];
+            }
+            if (sum != vars[n + c].getValue()) {
+                return ESat.FALSE;
+            }
+        }
+        return ESat.TRUE;
+    }
+}
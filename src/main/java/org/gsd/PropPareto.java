@@ -0,0 +1,98 @@
+package org.gsd;
+
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.events.IntEventType;
+import org.chocosolver.util.ESat;
+
+/**
+ * Requires the objectives to escape the dominance of every point in the
+ * archive, ie. for every archived point some objective must be strictly
+ * greater. Equivalent to posting one LCF.or of ICF.arithm(objective, ">",
+ * value) per point, but with a single propagator regardless of the size of the
+ * archive.
+ *
+ * @author jimmy
+ */
+public class PropPareto extends Propagator<IntVar> {
+
+    private final ParetoArchive<Void> archive;
+    private final int[] upper;
+
+    public PropPareto(IntVar... objectives) {
+        this(new ParetoArchive<>(objectives.length), objectives);
+    }
+
+    public PropPareto(ParetoArchive<Void> archive, IntVar... objectives) {
+        super(objectives, PropagatorPriority.LINEAR, false);
+        if (archive.getDimensions() != objectives.length) {
+            throw new IllegalArgumentException();
+        }
+        this.archive = archive;
+        this.upper = new int[objectives.length];
+    }
+
+    public ParetoArchive<Void> getArchive() {
+        return archive;
+    }
+
+    /**
+     * Adds the current values of the objectives to the archive. The propagator
+     * is rescheduled on the next backtrack so that the new point takes effect
+     * in the rest of the search.
+     *
+     * @return the point added
+     */
+    public int[] addSolution() {
+        int[] point = new int[vars.length];
+        for (int i = 0; i < point.length; i++) {
+            point[i] = vars[i].getValue();
+        }
+        addPoint(point);
+        return point;
+    }
+
+    public void addPoint(int[] point) {
+        if (archive.add(point)) {
+            solver.getEngine().propagateOnBacktrack(this);
+        }
+    }
+
+    @Override
+    public int getPropagationConditions(int vIdx) {
+        return IntEventType.DECUPP.getMask() | IntEventType.INSTANTIATE.getMask();
+    }
+
+    /*
+     * If every other objective is bounded by some archived point, the only way
+     * to escape that point is to strictly improve on it in this objective.
+     */
+    @Override
+    public void propagate(int evtmask) throws ContradictionException {
+        if (archive.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < vars.length; i++) {
+            upper[i] = vars[i].getUB();
+        }
+        for (int i = 0; i < vars.length; i++) {
+            int max = archive.max(i, upper);
+            if (max != Integer.MIN_VALUE) {
+                vars[i].updateLowerBound(max + 1, this);
+            }
+        }
+    }
+
+    @Override
+    public ESat isEntailed() {
+        for (int i = 0; i < vars.length; i++) {
+            upper[i] = vars[i].getUB();
+        }
+        if (archive.isDominated(upper)) {
+            return ESat.FALSE;
+        }
+        return isCompletelyInstantiated() ? ESat.TRUE : ESat.UNDEFINED;
+    }
+}
@@ -6,19 +6,23 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 import org.uma.jmetal.qualityindicator.impl.Epsilon;
 import org.uma.jmetal.qualityindicator.impl.ErrorRatio;
 import org.uma.jmetal.qualityindicator.impl.GeneralizedSpread;
-import org.uma.jmetal.qualityindicator.impl.GenerationalDistance;
 import org.uma.jmetal.qualityindicator.impl.Hypervolume;
-import org.uma.jmetal.qualityindicator.impl.InvertedGenerationalDistance;
-import org.uma.jmetal.qualityindicator.impl.InvertedGenerationalDistancePlus;
 import org.uma.jmetal.solution.DoubleSolution;
 import org.uma.jmetal.solution.Solution;
 import org.uma.jmetal.util.front.Front;
@@ -34,61 +38,99 @@ import org.uma.jmetal.util.point.impl.ArrayPoint;
  */
 public class Quality {
 
+    /*
+     * Selected per run with -Dhypervolume=exact|estimate|jmetal. The estimate
+     * is within -Dhypervolume.error of the exact value with 99% confidence.
+     */
+    private static final String HYPERVOLUME = System.getProperty("hypervolume", "exact");
+    private static final double HYPERVOLUME_ERROR = Double.parseDouble(System.getProperty("hypervolume.error", "0.01"));
+    private static final double HYPERVOLUME_CONFIDENCE = 0.99;
+
+    /*
+     * Either "field file..." printing one indicator as a LaTeX row, or
+     * "report latex|csv file..." printing every indicator, one row each.
+     */
     public static void main(String[] args) throws IOException {
+        if (args[0].equals("report")) {
+            report(args[1], Arrays.copyOfRange(args, 2, args.length));
+            return;
+        }
         int field = Integer.parseInt(args[0]);
 
         List<List<Point>> paretoFronts = new ArrayList<>();
         for (int i = 1; i < args.length; i++) {
             paretoFronts.add(parse(new File(args[i])));
         }
-        Front oracle = toFront(merge(paretoFronts));
+        Oracle oracle = new Oracle(toFront(merge(paretoFronts)));
 
         List<Double> columns = new ArrayList<>();
         for (List<Point> paretoFront : paretoFronts) {
             Stats s = computeStats(FrontUtils.convertFrontToSolutionList(toFront(paretoFront)), oracle);
-            switch (field) {
-                case 0:
-                    columns.add(s.hypervolumeN);
-                    break;
-                case 1:
-                    columns.add(s.hypervolume);
-                    break;
-                case 2:
-                    columns.add(s.epsilonN);
-                    break;
-                case 3:
-                    columns.add(s.epsilon);
-                    break;
-                case 4:
-                    columns.add(s.gdN);
-                    break;
-                case 5:
-                    columns.add(s.gd);
-                    break;
-                case 6:
-                    columns.add(s.igdN);
-                    break;
-                case 7:
-                    columns.add(s.igd);
-                    break;
-                case 8:
-                    columns.add(s.igdPlusN);
-                    break;
-                case 9:
-                    columns.add(s.igdPlus);
-                    break;
-                case 10:
-                    columns.add(s.spreadN);
-                    break;
-                case 11:
-                    columns.add(s.spread);
-                    break;
-                case 12:
-                    columns.add(s.errorRatio);
-                    break;
+            columns.add(s.get(field));
+        }
+        printLatexRow(columns);
+    }
+
+    /**
+     * Parses every file once, builds the oracle once and computes all the
+     * indicators of all the fronts concurrently.
+     */
+    public static void report(String format, String... files) throws IOException {
+        if (!format.equals("latex") && !format.equals("csv")) {
+            throw new IllegalArgumentException("Unknown format: " + format);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<Future<List<Point>>> parsed = new ArrayList<>();
+            for (String file : files) {
+                parsed.add(executor.submit(() -> parse(new File(file))));
+            }
+            List<List<Point>> paretoFronts = new ArrayList<>();
+            for (Future<List<Point>> paretoFront : parsed) {
+                paretoFronts.add(paretoFront.get());
+            }
+
+            Oracle oracle = new Oracle(toFront(merge(paretoFronts)));
+            List<Future<Stats>> computed = new ArrayList<>();
+            for (List<Point> paretoFront : paretoFronts) {
+                computed.add(executor.submit(() -> computeStats(
+                        FrontUtils.convertFrontToSolutionList(toFront(paretoFront)), oracle)));
+            }
+            List<Stats> stats = new ArrayList<>();
+            for (Future<Stats> s : computed) {
+                stats.add(s.get());
+            }
+
+            if (format.equals("csv")) {
+                System.out.println("indicator," + String.join(",", files));
+            }
+            for (int field = 0; field < Stats.NAMES.length; field++) {
+                List<Double> columns = new ArrayList<>();
+                for (Stats s : stats) {
+                    columns.add(s.get(field));
+                }
+                if (format.equals("csv")) {
+                    System.out.println(Stats.NAMES[field] + ","
+                            + columns.stream().map(String::valueOf).collect(Collectors.joining(",")));
+                } else {
+                    System.out.print(Stats.NAMES[field] + " & ");
+                    printLatexRow(columns);
+                }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
         }
+    }
 
+    private static void printLatexRow(List<Double> columns) {
         Double max = Collections.max(columns);
         Double min = Collections.min(columns);
 
@@ -109,7 +151,16 @@ public class Quality {
         }
     }
 
-    private static class Stats {
+    static class Stats {
+
+        static final String[] NAMES = {
+            "hypervolumeN", "hypervolume",
+            "epsilonN", "epsilon",
+            "gdN", "gd",
+            "igdN", "igd",
+            "igdPlusN", "igdPlus",
+            "spreadN", "spread",
+            "errorRatio"};
 
         private final double hypervolumeN, hypervolume,
                 epsilonN, epsilon,
@@ -134,6 +185,42 @@ public class Quality {
             this.spread = spread;
             this.errorRatio = errorRatio;
         }
+
+        /**
+         * @param field the index of the indicator in NAMES
+         */
+        double get(int field) {
+            switch (field) {
+                case 0:
+                    return hypervolumeN;
+                case 1:
+                    return hypervolume;
+                case 2:
+                    return epsilonN;
+                case 3:
+                    return epsilon;
+                case 4:
+                    return gdN;
+                case 5:
+                    return gd;
+                case 6:
+                    return igdN;
+                case 7:
+                    return igd;
+                case 8:
+                    return igdPlusN;
+                case 9:
+                    return igdPlus;
+                case 10:
+                    return spreadN;
+                case 11:
+                    return spread;
+                case 12:
+                    return errorRatio;
+                default:
+                    throw new IllegalArgumentException("Unknown field: " + field);
+            }
+        }
     }
 
     /*
@@ -141,29 +228,107 @@ public class Quality {
      */
     public static Stats computeStats(List<? extends Solution<?>> population, Front referenceFront)
             throws FileNotFoundException {
-        FrontNormalizer frontNormalizer = new FrontNormalizer(referenceFront);
+        return computeStats(population, new Oracle(referenceFront));
+    }
+
+    /**
+     * Everything about a reference front that is shared by the fronts compared
+     * to it, including a KD-tree over its points for GD. The tree serves both
+     * the raw and the normalized points since normalizing keeps the order of
+     * the coordinates.
+     */
+    private static class Oracle {
+
+        private final Front front;
+        private final FrontNormalizer frontNormalizer;
+        private final Front normalizedFront;
+        private final double[][] points;
+        private final double[][] normalizedPoints;
+        private final KdTree tree;
+
+        Oracle(Front front) {
+            this.front = front;
+            this.frontNormalizer = new FrontNormalizer(front);
+            this.normalizedFront = frontNormalizer.normalize(front);
+            this.points = FrontUtils.convertFrontToArray(front);
+            this.normalizedPoints = FrontUtils.convertFrontToArray(normalizedFront);
+            this.tree = new KdTree(points);
+        }
+    }
 
-        Front normalizedReferenceFront = frontNormalizer.normalize(referenceFront);
-        Front normalizedFront = frontNormalizer.normalize(new ArrayFront(population));
+    private static Stats computeStats(List<? extends Solution<?>> population, Oracle oracle) {
+        Front referenceFront = oracle.front;
+        Front normalizedReferenceFront = oracle.normalizedFront;
+        Front normalizedFront = oracle.frontNormalizer.normalize(new ArrayFront(population));
         List<DoubleSolution> normalizedPopulation = FrontUtils
                 .convertFrontToSolutionList(normalizedFront);
 
+        /* The IGDs look up the closest points of the front, one tree serves all four. */
+        double[][] points = FrontUtils.convertFrontToArray(new ArrayFront(population));
+        double[][] normalizedPoints = FrontUtils.convertFrontToArray(normalizedFront);
+        KdTree tree = new KdTree(points);
+
+        double hypervolumeN, hypervolume;
+        switch (HYPERVOLUME) {
+            case "jmetal":
+                hypervolumeN = new Hypervolume<>(normalizedReferenceFront).evaluate(normalizedPopulation);
+                hypervolume = new Hypervolume<>(referenceFront).evaluate(population);
+                break;
+            case "exact":
+                hypervolumeN = FastHypervolume.exact(FrontUtils.convertFrontToArray(normalizedFront));
+                hypervolume = FastHypervolume.exact(FrontUtils.convertFrontToArray(new ArrayFront(population)));
+                break;
+            case "estimate":
+                hypervolumeN = FastHypervolume.estimate(FrontUtils.convertFrontToArray(normalizedFront),
+                        HYPERVOLUME_ERROR, HYPERVOLUME_CONFIDENCE, new Random(0));
+                hypervolume = FastHypervolume.estimate(FrontUtils.convertFrontToArray(new ArrayFront(population)),
+                        HYPERVOLUME_ERROR, HYPERVOLUME_CONFIDENCE, new Random(0));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown hypervolume: " + HYPERVOLUME);
+        }
+
         return new Stats(
-                new Hypervolume<>(normalizedReferenceFront).evaluate(normalizedPopulation),
-                new Hypervolume<>(referenceFront).evaluate(population),
+                hypervolumeN,
+                hypervolume,
                 new Epsilon<>(normalizedReferenceFront).evaluate(normalizedPopulation),
                 new Epsilon<>(referenceFront).evaluate(population),
-                new GenerationalDistance<>(normalizedReferenceFront).evaluate(normalizedPopulation),
-                new GenerationalDistance<>(referenceFront).evaluate(population),
-                new InvertedGenerationalDistance<>(normalizedReferenceFront).evaluate(normalizedPopulation),
-                new InvertedGenerationalDistance<>(referenceFront).evaluate(population),
-                new InvertedGenerationalDistancePlus<>(normalizedReferenceFront).evaluate(normalizedPopulation),
-                new InvertedGenerationalDistancePlus<>(referenceFront).evaluate(population),
+                distance(normalizedPoints, oracle.tree, oracle.normalizedPoints),
+                distance(points, oracle.tree, oracle.points),
+                distance(oracle.normalizedPoints, tree, normalizedPoints),
+                distance(oracle.points, tree, points),
+                dominanceDistance(oracle.normalizedPoints, tree, normalizedPoints),
+                dominanceDistance(oracle.points, tree, points),
                 new GeneralizedSpread<>(normalizedReferenceFront).evaluate(normalizedPopulation),
                 new GeneralizedSpread<>(referenceFront).evaluate(population),
                 new ErrorRatio<>(referenceFront).evaluate(population));
     }
 
+    /*
+     * Generational distance of from to to, as computed by jMetal's
+     * GenerationalDistance, or the inverted one when swapped. tree is over to.
+     */
+    private static double distance(double[][] from, KdTree tree, double[][] to) {
+        double sum = 0;
+        for (double[] point : from) {
+            double distance = tree.nearest(to, point);
+            sum += distance * distance;
+        }
+        return Math.sqrt(sum) / from.length;
+    }
+
+    /*
+     * As computed by jMetal's InvertedGenerationalDistancePlus. tree is over
+     * front.
+     */
+    private static double dominanceDistance(double[][] reference, KdTree tree, double[][] front) {
+        double sum = 0;
+        for (double[] point : reference) {
+            sum += tree.nearestDominance(front, point);
+        }
+        return sum / reference.length;
+    }
+
     private static Front toFront(Collection<Point> paretoFront) {
         ArrayFront front = new ArrayFront(paretoFront.size(), paretoFront.iterator().next().getNumberOfDimensions());
         int i = 0;
@@ -174,48 +339,63 @@ public class Quality {
         return front;
     }
 
+    /*
+     * Streamed fronts also list the points that were dominated later on, see
+     * ParetoPrinter. Those are dropped once for every time they were retracted.
+     */
     private static List<Point> parse(File file) throws IOException {
-        List<Point> paretoFront = new ArrayList<>();
+        List<String> paretoLines = new ArrayList<>();
+        Map<String, Integer> dominated = new HashMap<>();
         try (BufferedReader in = new BufferedReader(new FileReader(file))) {
             String line;
             while ((line = in.readLine()) != null) {
                 line = line.trim();
 
                 if (line.endsWith(";")) {
-                    String[] coordinates = line.split(" ");
-                    double[] paretoPoint = new double[coordinates.length - 1];
-                    for (int i = 0; i < paretoPoint.length; i++) {
-                        paretoPoint[i] = Integer.parseInt(coordinates[i]);
+                    if (line.startsWith(ParetoPrinter.DOMINATED)) {
+                        dominated.merge(line.substring(ParetoPrinter.DOMINATED.length()), 1, Integer::sum);
+                    } else {
+                        paretoLines.add(line);
                     }
-                    paretoFront.add(new ArrayPoint(paretoPoint));
                 }
             }
         }
-        return paretoFront;
-    }
-
-    private static boolean dominates(Point a, Point b) {
-        if (a.getNumberOfDimensions() != b.getNumberOfDimensions()) {
-            throw new IllegalArgumentException();
-        }
-        boolean strict = false;
-        for (int i = 0; i < a.getNumberOfDimensions(); i++) {
-            if (a.getDimensionValue(i) > b.getDimensionValue(i)) {
-                return false;
-            } else if (a.getDimensionValue(i) < b.getDimensionValue(i)) {
-                strict = true;
+        List<Point> paretoFront = new ArrayList<>();
+        for (String line : paretoLines) {
+            Integer retracted = dominated.get(line);
+            if (retracted != null && retracted > 0) {
+                dominated.put(line, retracted - 1);
+                continue;
+            }
+            String[] coordinates = line.split(" ");
+            double[] paretoPoint = new double[coordinates.length - 1];
+            for (int i = 0; i < paretoPoint.length; i++) {
+                paretoPoint[i] = Integer.parseInt(coordinates[i]);
             }
+            paretoFront.add(new ArrayPoint(paretoPoint));
         }
-        return strict;
+        return paretoFront;
     }
 
-    private static Set<Point> merge(List<List<Point>> paretoFronts) {
-        Set<Point> merge = new HashSet<>();
-        for (List<Point> paretoFront : paretoFronts) {
-            merge.addAll(paretoFront);
+    /*
+     * The fronts are minimized and hold integer coordinates, so negating them
+     * fits the maximizing filter exactly. Duplicates are dropped since a point
+     * weakly dominates itself.
+     */
+    static List<Point> merge(List<List<Point>> paretoFronts) {
+        List<Point> paretoPoints = new ArrayList<>();
+        paretoFronts.forEach(paretoPoints::addAll);
+        int[][] negated = new int[paretoPoints.size()][];
+        for (int p = 0; p < negated.length; p++) {
+            Point paretoPoint = paretoPoints.get(p);
+            negated[p] = new int[paretoPoint.getNumberOfDimensions()];
+            for (int i = 0; i < negated[p].length; i++) {
+                negated[p][i] = -(int) paretoPoint.getDimensionValue(i);
+            }
         }
-        for (List<Point> paretoFront : paretoFronts) {
-            paretoFront.forEach(paretoPoint -> merge.removeIf(x -> dominates(paretoPoint, x)));
+        List<Point> merge = new ArrayList<>();
+        for (int p : ParetoFilter.nonDominated(negated)) {
+            merge.add(paretoPoints.get(p));
         }
         return merge;
     }
@@ -0,0 +1,64 @@
+package org.gsd;
+
+import java.util.Random;
+import org.uma.jmetal.util.pseudorandom.JMetalRandom;
+import org.uma.jmetal.util.pseudorandom.PseudoRandomGenerator;
+
+/**
+ * JMetalRandom is a singleton shared by the concurrent jobs of BatchRunner
+ * and the islands of IslandModel, so this gives it one Random per thread to
+ * keep every one of them reproducible from its seed. The mains install it
+ * once, before any run.
+ *
+ * @author jimmy
+ */
+class ThreadLocalGenerator implements PseudoRandomGenerator {
+
+    private static final String NAME = "ThreadLocalGenerator";
+
+    private final ThreadLocal<Random> random = ThreadLocal.withInitial(Random::new);
+    private final ThreadLocal<Long> seed = ThreadLocal.withInitial(() -> 0L);
+
+    /**
+     * Gives JMetalRandom a ThreadLocalGenerator, unless it has one already.
+     */
+    static void install() {
+        JMetalRandom random = JMetalRandom.getInstance();
+        synchronized (random) {
+            if (!NAME.equals(random.getGeneratorName())) {
+                random.setRandomGenerator(new ThreadLocalGenerator());
+            }
+        }
+    }
+
+    @Override
+    public int nextInt(int lowerBound, int upperBound) {
+        return lowerBound + random.get().nextInt(upperBound - lowerBound + 1);
+    }
+
+    @Override
+    public double nextDouble(double lowerBound, double upperBound) {
+        return lowerBound + random.get().nextDouble() * (upperBound - lowerBound);
+    }
+
+    @Override
+    public double nextDouble() {
+        return random.get().nextDouble();
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        this.seed.set(seed);
+        random.get().setSeed(seed);
+    }
+
+    @Override
+    public long getSeed() {
+        return seed.get();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
@@ -0,0 +1,52 @@
+package org.gsd;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author jimmy
+ */
+public class BatchRunnerTest {
+
+    @Test
+    public void testRows() throws IOException, InterruptedException, URISyntaxException {
+        Path directory = Paths.get(BatchRunnerTest.class.getResource("/kp").toURI());
+        List<Path> instances = BatchRunner.instances(directory);
+        assertTrue(instances.contains(directory.resolve("KP_p-3_n-10_ins-1.dat")));
+        for (Path instance : instances) {
+            assertTrue(instance.toString().endsWith(".dat"));
+        }
+        instances = Arrays.asList(directory.resolve("KP_p-3_n-10_ins-1.dat"), directory.resolve("KP_p-3_n-10_ins-2.dat"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BatchRunner.run(instances, Arrays.asList(0, 9), 2, new PrintStream(bytes, true));
+        String[] rows = bytes.toString().split("\\R");
+        assertEquals("instance,algorithm,seed,objectives,items,front,solutions,time,limit", rows[0]);
+        assertEquals(1 + 2 * 2 * 2, rows.length);
+
+        /* The exact engines find the same front whatever the seed. */
+        Map<String, String> fronts = new HashMap<>();
+        for (int i = 1; i < rows.length; i++) {
+            String[] columns = rows[i].split(",");
+            assertEquals(9, columns.length);
+            assertEquals("false", columns[8]);
+            String previous = fronts.put(columns[0], columns[5]);
+            if (previous != null) {
+                assertEquals(previous, columns[5]);
+            }
+        }
+        assertEquals(2, fronts.size());
+    }
+}
@@ -0,0 +1,178 @@
+package org.gsd;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.SolverFactory;
+import org.chocosolver.solver.variables.IntVar;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.uma.jmetal.solution.BinarySolution;
+import org.uma.jmetal.util.evaluator.impl.SequentialSolutionListEvaluator;
+
+/**
+ *
+ * @author jimmy
+ */
+public class BudgetTest {
+
+    private static KnapsackProblem problem() {
+        Random random = new Random(0);
+        int[] weights = new int[30];
+        int[][] energies = new int[3][weights.length];
+        int totalWeight = 0;
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = 1 + random.nextInt(1000);
+            totalWeight += weights[i];
+            for (int[] energy : energies) {
+                energy[i] = 1 + random.nextInt(1000);
+            }
+        }
+        return new KnapsackProblem(totalWeight / 2, weights, energies);
+    }
+
+    @Test
+    public void testWallClock() throws InterruptedException {
+        Budget budget = new Budget().withWallClock(50);
+        assertFalse(budget.isExhausted());
+        budget.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!budget.isExhausted() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(budget.isExhausted());
+    }
+
+    @Test
+    public void testCpuTime() {
+        Budget budget = new Budget().withCpuTime(50);
+        budget.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        long spin = 0;
+        while (!budget.isExhausted() && System.currentTimeMillis() < deadline) {
+            spin++;
+        }
+        assertTrue(spin > 0);
+        assertTrue(budget.isExhausted());
+    }
+
+    /* The CPU time of a thread that ended still counts. */
+    @Test
+    public void testEndedThread() throws InterruptedException {
+        Budget budget = new Budget().withCpuTime(60 * 1000);
+        long spun = TimeUnit.MILLISECONDS.toNanos(50);
+        Thread thread = new Thread(() -> {
+            budget.start();
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            long start = bean.getCurrentThreadCpuTime();
+            while (bean.getCurrentThreadCpuTime() - start < spun) {
+            }
+            budget.cpuTime();
+        });
+        thread.start();
+        thread.join();
+        long cpuTime = budget.cpuTime();
+        assertTrue(cpuTime >= spun);
+        assertEquals(cpuTime, budget.cpuTime());
+        budget.stop();
+    }
+
+    /*
+     * Every limit of n exhausts the budget at the n-th unit counted, not
+     * before, whether counted directly, through an evaluator or by a parent.
+     */
+    @Test
+    public void testCounters() {
+        Budget nodes = new Budget().withNodes(3);
+        Budget fails = new Budget().withFails(3);
+        Budget evaluations = new Budget().withEvaluations(3);
+        for (int i = 1; i < 3; i++) {
+            nodes.opened();
+            fails.failed();
+            evaluations.evaluated(1);
+            assertFalse(nodes.isExhausted());
+            assertFalse(fails.isExhausted());
+            assertFalse(evaluations.isExhausted());
+        }
+        nodes.opened();
+        fails.failed();
+        evaluations.evaluated(1);
+        assertTrue(nodes.isExhausted());
+        assertTrue(fails.isExhausted());
+        assertTrue(evaluations.isExhausted());
+
+        Budget budget = new Budget().withEvaluations(250);
+        KnapsackProblem problem = problem();
+        List<BinarySolution> population = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            population.add(problem.createSolution());
+        }
+        SequentialSolutionListEvaluator<BinarySolution> evaluator = new SequentialSolutionListEvaluator<>();
+        budget.count(evaluator).evaluate(population, problem);
+        budget.count(evaluator).evaluate(population, problem);
+        assertFalse(budget.isExhausted());
+        budget.count(evaluator).evaluate(population, problem);
+        assertTrue(budget.isExhausted());
+
+        Budget parent = new Budget();
+        Budget phase = new Budget().withEvaluations(100).withParent(parent);
+        phase.evaluated(99);
+        assertFalse(phase.isExhausted());
+        parent.exhaust();
+        assertTrue(phase.isExhausted());
+    }
+
+    @Test
+    public void testUnlimited() {
+        Solver solver = SolverFactory.makeSolver();
+        Budget budget = new Budget();
+        IntVar[] objectives = KnapsackRunner.choco(problem(), solver, budget, 0, true);
+        Moo.oia(solver, objectives);
+        assertFalse(budget.isExhausted());
+        assertFalse(solver.hasReachedLimit());
+    }
+
+    @Test
+    public void testNodes() {
+        Solver solver = SolverFactory.makeSolver();
+        Budget budget = new Budget().withNodes(100);
+        IntVar[] objectives = KnapsackRunner.choco(problem(), solver, budget, 0, true);
+        Moo.oia(solver, objectives);
+        assertTrue(budget.isExhausted());
+    }
+
+    /* Shared by the solvers of a decomposition, the limit bounds them all. */
+    @Test
+    public void testSharedFails() {
+        Budget budget = new Budget().withFails(50);
+        KnapsackProblem problem = problem();
+        Moo.decompose(solver -> KnapsackRunner.choco(problem, solver, budget, 0, true), 4);
+        assertTrue(budget.isExhausted());
+    }
+
+    @Test
+    public void testEvaluations() {
+        Budget budget = new Budget().withEvaluations(1000);
+        KnapsackProblem problem = problem();
+        KnapsackRunner.Result result = KnapsackRunner.solve(4, problem, 1, budget, 0, null);
+        assertTrue(result.limitReached);
+        assertEquals(problem.getNumberOfObjectives(), result.paretoFront.get(0).length);
+
+        Budget random = new Budget().withEvaluations(1000);
+        KnapsackRunner.random(problem, random).run();
+        assertTrue(random.isExhausted());
+
+        /* A phase runs out first, its parent going on. */
+        Budget parent = new Budget();
+        Budget phase = new Budget().withEvaluations(1000).withParent(parent);
+        KnapsackRunner.nsgaii(problem, 100, phase, phase.count(new SequentialSolutionListEvaluator<>())).run();
+        assertTrue(phase.isExhausted());
+        assertFalse(parent.isExhausted());
+    }
+}
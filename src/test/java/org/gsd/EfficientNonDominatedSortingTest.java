@@ -0,0 +1,112 @@
+package org.gsd;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import org.uma.jmetal.solution.BinarySolution;
+import org.uma.jmetal.util.solutionattribute.Ranking;
+import org.uma.jmetal.util.solutionattribute.impl.DominanceRanking;
+
+/**
+ *
+ * @author jimmy
+ */
+public class EfficientNonDominatedSortingTest {
+
+    /* Few distinct energies, for ties, and a capacity that some solutions exceed. */
+    private static KnapsackProblem problem(Random random) {
+        int[] weights = new int[8];
+        int[][] energies = new int[1 + random.nextInt(3)][weights.length];
+        int totalWeight = 0;
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = 1 + random.nextInt(5);
+            totalWeight += weights[i];
+            for (int[] energy : energies) {
+                energy[i] = random.nextInt(4);
+            }
+        }
+        return new KnapsackProblem(totalWeight / 2, weights, energies);
+    }
+
+    private static BinarySolution solution(KnapsackProblem problem) {
+        BinarySolution solution = problem.createSolution();
+        problem.evaluate(solution);
+        problem.evaluateConstraints(solution);
+        return solution;
+    }
+
+    private static List<BinarySolution> population(KnapsackProblem problem, Random random, int size) {
+        List<BinarySolution> population = new ArrayList<>();
+        while (population.size() < size) {
+            /* Copies too, that are neither dominated nor dominating. */
+            population.add(population.isEmpty() || random.nextInt(4) > 0
+                    ? solution(problem)
+                    : (BinarySolution) population.get(random.nextInt(population.size())).copy());
+        }
+        return population;
+    }
+
+    /* The rank of every solution, in order, and checks the subfronts hold the solutions of their rank. */
+    private static List<Integer> ranks(Ranking<BinarySolution> ranking, List<BinarySolution> population) {
+        ranking.computeRanking(population);
+        int size = 0;
+        for (int rank = 0; rank < ranking.getNumberOfSubfronts(); rank++) {
+            for (BinarySolution solution : ranking.getSubfront(rank)) {
+                assertEquals(rank, (int) ranking.getAttribute(solution));
+            }
+            size += ranking.getSubfront(rank).size();
+        }
+        assertEquals(population.size(), size);
+        List<Integer> ranks = new ArrayList<>();
+        for (BinarySolution solution : population) {
+            ranks.add((Integer) solution.getAttribute(DominanceRanking.class));
+        }
+        return ranks;
+    }
+
+    @Test
+    public void testAgainstDominanceRanking() {
+        Random random = new Random(0);
+        for (int repeat = 0; repeat < 200; repeat++) {
+            KnapsackProblem problem = problem(random);
+            List<BinarySolution> population = population(problem, random, 1 + random.nextInt(60));
+            assertEquals(ranks(new DominanceRanking<>(), population),
+                    ranks(new EfficientNonDominatedSorting<>(), population));
+        }
+    }
+
+    /* As in a steady-state NSGA-II: one offspring, then the best fronts survive. */
+    @Test
+    public void testIncremental() {
+        Random random = new Random(0);
+        for (int repeat = 0; repeat < 20; repeat++) {
+            KnapsackProblem problem = problem(random);
+            int size = 1 + random.nextInt(40);
+            List<BinarySolution> population = population(problem, random, size);
+            EfficientNonDominatedSorting<BinarySolution> incremental = new EfficientNonDominatedSorting<>(true);
+            for (int generation = 0; generation < 100; generation++) {
+                List<BinarySolution> joint = new ArrayList<>(population);
+                joint.add(random.nextInt(10) == 0 && !population.isEmpty()
+                        ? (BinarySolution) population.get(0).copy()
+                        : solution(problem));
+                Collections.shuffle(joint, random);
+                List<Integer> expected = ranks(new DominanceRanking<>(), joint);
+                assertEquals(expected, ranks(incremental, joint));
+
+                population = new ArrayList<>();
+                for (int rank = 0; population.size() < size; rank++) {
+                    List<BinarySolution> front = new ArrayList<>(incremental.getSubfront(rank));
+                    Collections.shuffle(front, random);
+                    population.addAll(front.subList(0, Math.min(front.size(), size - population.size())));
+                }
+                /* Now and then a survivor is dropped, forcing a full sort. */
+                if (random.nextInt(10) == 0) {
+                    population.remove(random.nextInt(population.size()));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.gsd;
+
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import org.uma.jmetal.qualityindicator.impl.Hypervolume;
+
+/**
+ *
+ * @author jimmy
+ */
+public class FastHypervolumeTest {
+
+    /*
+     * Points around the unit sphere, with a few outside of [0, 1].
+     */
+    private static double[][] randomFront(Random random, int size, int dimensions) {
+        double[][] front = new double[size][dimensions];
+        for (double[] point : front) {
+            double norm = 0;
+            for (int k = 0; k < dimensions; k++) {
+                point[k] = random.nextDouble();
+                norm += point[k] * point[k];
+            }
+            norm = Math.sqrt(norm) * (0.9 + 0.2 * random.nextDouble());
+            for (int k = 0; k < dimensions; k++) {
+                point[k] = random.nextInt(50) == 0 ? 1.1 - random.nextDouble() * 1.2 : point[k] / norm;
+            }
+        }
+        return front;
+    }
+
+    private static double jMetal(double[][] front) {
+        double[][] inverted = new double[front.length][];
+        for (int i = 0; i < front.length; i++) {
+            inverted[i] = new double[front[i].length];
+            for (int k = 0; k < front[i].length; k++) {
+                inverted[i][k] = 1 - Math.min(1, Math.max(0, front[i][k]));
+            }
+        }
+        return new Hypervolume<>().calculateHypervolume(inverted, inverted.length, front[0].length);
+    }
+
+    @Test
+    public void testExact() {
+        Random random = new Random(0);
+        for (int dimensions = 2; dimensions <= 5; dimensions++) {
+            for (int size : new int[]{1, 2, 10, 60}) {
+                double[][] front = randomFront(random, size, dimensions);
+                assertEquals(dimensions + " " + size, jMetal(front), FastHypervolume.exact(front), 1e-12);
+            }
+        }
+    }
+
+    @Test
+    public void testEstimate() {
+        Random random = new Random(1);
+        for (int dimensions = 2; dimensions <= 5; dimensions++) {
+            double[][] front = randomFront(random, 100, dimensions);
+            double exact = FastHypervolume.exact(front);
+            assertEquals(exact, FastHypervolume.estimate(front, 0.01, 0.999, random), 0.01);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.gsd;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.uma.jmetal.problem.Problem;
+import org.uma.jmetal.solution.BinarySolution;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+import org.uma.jmetal.util.pseudorandom.JMetalRandom;
+
+/**
+ *
+ * @author jimmy
+ */
+public class IslandModelTest {
+
+    private static KnapsackProblem problem(String name) throws IOException, URISyntaxException {
+        return KnapsackLoader.load(Paths.get(IslandModelTest.class.getResource("/kp/" + name).toURI()));
+    }
+
+    private static boolean dominates(int[] a, int[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] < b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* Feasible, non-dominated, and weakly dominated by the exact front. */
+    private static void check(KnapsackProblem problem, List<int[]> front) {
+        assertFalse(front.isEmpty());
+        List<int[]> exact = NemhauserUllmann.pareto(problem);
+        for (int[] point : front) {
+            int[] maximized = point.clone();
+            for (int i = 0; i < maximized.length; i++) {
+                maximized[i] = -maximized[i];
+            }
+            assertTrue(exact.stream().anyMatch(p -> dominates(p, maximized)));
+            for (int[] other : front) {
+                /* Minimized, other is as good as point when point dominates it. */
+                assertTrue(other == point || !dominates(point, other));
+            }
+        }
+    }
+
+    @Test
+    public void testSolve() throws IOException, URISyntaxException {
+        KnapsackProblem problem = problem("KP_p-3_n-20_ins-1.dat");
+        String[] names = {"islandNsgaii", "islandSpea", "islandMocell"};
+        for (int algorithm = 13; algorithm <= 15; algorithm++) {
+            Budget budget = new Budget().withEvaluations(20000);
+            KnapsackRunner.Result result = KnapsackRunner.solve(algorithm, problem, 3, budget, 0, null);
+            assertEquals(names[algorithm - 13], result.name);
+            assertTrue(result.limitReached);
+            check(problem, result.paretoFront);
+        }
+    }
+
+    @Test
+    public void testMigration() throws IOException, URISyntaxException {
+        KnapsackProblem problem = problem("KP_p-3_n-20_ins-1.dat");
+        Budget budget = new Budget().withEvaluations(20000);
+        AtomicInteger immigrants = new AtomicInteger();
+        IslandModel islands = new IslandModel(problem, 4, 0, 100, 5, island -> {
+            /* Counts the solutions handed back that were not handed in. */
+            SolutionListEvaluator<BinarySolution> evaluator = new SolutionListEvaluator<BinarySolution>() {
+
+                @Override
+                public List<BinarySolution> evaluate(List<BinarySolution> solutionList, Problem<BinarySolution> p) {
+                    Set<BinarySolution> offspring = Collections.newSetFromMap(new IdentityHashMap<>());
+                    offspring.addAll(solutionList);
+                    List<BinarySolution> evaluated = island.evaluate(solutionList, p);
+                    for (BinarySolution solution : evaluated) {
+                        if (!offspring.contains(solution)) {
+                            immigrants.incrementAndGet();
+                        }
+                    }
+                    return evaluated;
+                }
+
+                @Override
+                public void shutdown() {
+                    island.shutdown();
+                }
+            };
+            return KnapsackRunner.nsgaii(problem, 20, budget, budget.count(evaluator));
+        });
+        islands.run();
+        assertTrue(budget.isExhausted());
+        assertTrue(immigrants.get() > 0);
+        for (BinarySolution solution : islands.getResult()) {
+            assertTrue(problem.getTotalWeight(solution) <= problem.getCapacity());
+        }
+    }
+
+    /* Installed again, the generator is kept, and every thread draws from its own seed. */
+    @Test
+    public void testThreadLocalGenerator() throws InterruptedException {
+        JMetalRandom random = JMetalRandom.getInstance();
+        ThreadLocalGenerator.install();
+        random.setSeed(7);
+        ThreadLocalGenerator.install();
+        assertEquals("ThreadLocalGenerator", random.getGeneratorName());
+        assertEquals(new Random(7).nextInt(1001), random.nextInt(0, 1000));
+
+        int[][] draws = new int[2][1000];
+        Thread[] threads = new Thread[draws.length];
+        for (int k = 0; k < threads.length; k++) {
+            int[] draw = draws[k];
+            threads[k] = new Thread(() -> {
+                random.setSeed(42);
+                for (int i = 0; i < draw.length; i++) {
+                    draw[i] = random.nextInt(0, 1000);
+                }
+            });
+            threads[k].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertArrayEquals(draws[0], draws[1]);
+    }
+}
@@ -0,0 +1,53 @@
+package org.gsd;
+
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ *
+ * @author jimmy
+ */
+public class KdTreeTest {
+
+    @Test
+    public void testAgainstScan() {
+        Random random = new Random(0);
+        for (int dimensions = 1; dimensions <= 5; dimensions++) {
+            for (int size : new int[]{1, 2, 7, 500}) {
+                double[][] points = new double[size][dimensions];
+                double[][] scaled = new double[size][dimensions];
+                for (int i = 0; i < size; i++) {
+                    for (int k = 0; k < dimensions; k++) {
+                        /* Few distinct values for plenty of ties. */
+                        points[i][k] = random.nextInt(20);
+                        scaled[i][k] = (points[i][k] - 3) / (k + 1);
+                    }
+                }
+                KdTree tree = new KdTree(points);
+                for (int q = 0; q < 200; q++) {
+                    double[] query = new double[dimensions];
+                    for (int k = 0; k < dimensions; k++) {
+                        query[k] = random.nextDouble() * 10 - 1;
+                    }
+                    for (double[][] coordinates : new double[][][]{points, scaled}) {
+                        double nearest = Double.POSITIVE_INFINITY;
+                        double nearestDominance = Double.POSITIVE_INFINITY;
+                        for (double[] point : coordinates) {
+                            double distance = 0;
+                            double dominance = 0;
+                            for (int k = 0; k < dimensions; k++) {
+                                distance += (point[k] - query[k]) * (point[k] - query[k]);
+                                dominance += Math.pow(Math.max(point[k] - query[k], 0), 2);
+                            }
+                            nearest = Math.min(nearest, Math.sqrt(distance));
+                            nearestDominance = Math.min(nearestDominance, Math.sqrt(dominance));
+                        }
+                        assertEquals(nearest, tree.nearest(coordinates, query), 1e-12);
+                        assertEquals(nearestDominance, tree.nearestDominance(coordinates, query), 1e-12);
+                    }
+                }
+            }
+        }
+    }
+}
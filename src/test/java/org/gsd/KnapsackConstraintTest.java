@@ -0,0 +1,97 @@
+package org.gsd;
+
+import java.util.Random;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.SolverFactory;
+import org.chocosolver.solver.constraints.ICF;
+import org.chocosolver.solver.search.strategy.ISF;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.VF;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author jimmy
+ */
+public class KnapsackConstraintTest {
+
+    /* The assignments of at most copies of every item under the capacity, with enough of the first energy. */
+    private static long count(int capacity, int copies, int lower, int[] weights, int[][] energies) {
+        long count = 0;
+        int[] x = new int[weights.length];
+        while (true) {
+            long weight = 0;
+            long energy = 0;
+            for (int i = 0; i < x.length; i++) {
+                weight += x[i] * weights[i];
+                energy += x[i] * energies[0][i];
+            }
+            if (weight <= capacity && energy >= lower) {
+                count++;
+            }
+            int i = 0;
+            while (i < x.length && x[i] == copies) {
+                x[i++] = 0;
+            }
+            if (i == x.length) {
+                return count;
+            }
+            x[i]++;
+        }
+    }
+
+    @Test
+    public void testSolutions() {
+        Random random = new Random(0);
+        for (int repeat = 0; repeat < 300; repeat++) {
+            int n = 1 + random.nextInt(6);
+            int copies = random.nextBoolean() ? 1 : 1 + random.nextInt(3);
+            int[] weights = new int[n];
+            int[][] energies = new int[1 + random.nextInt(3)][n];
+            int totalWeight = 0;
+            for (int i = 0; i < n; i++) {
+                /* Weightless items too, that ICF.knapsack gets wrong. */
+                weights[i] = random.nextInt(9);
+                totalWeight += copies * weights[i];
+                for (int[] energy : energies) {
+                    energy[i] = random.nextInt(9);
+                }
+            }
+            int capacity = random.nextInt(totalWeight + 1);
+            int lower = random.nextInt(20);
+
+            Solver solver = SolverFactory.makeSolver();
+            IntVar[] occurences = copies == 1
+                    ? VF.boolArray("occurences", n, solver)
+                    : VF.enumeratedArray("occurences", n, 0, copies, solver);
+            IntVar totalWeightVar = VF.enumerated("totalWeight", 0, capacity, solver);
+            IntVar[] totalEnergies = new IntVar[energies.length];
+            for (int i = 0; i < energies.length; i++) {
+                totalEnergies[i] = VF.enumerated("totalEnergy[" + i + "]", 0, 9 * copies * n, solver);
+            }
+            solver.post(new KnapsackConstraint(occurences, totalWeightVar, totalEnergies, weights, energies));
+            solver.post(ICF.arithm(totalEnergies[0], ">=", lower));
+            solver.set(ISF.lexico_LB(occurences));
+            long solutions = 0;
+            if (solver.findSolution()) {
+                do {
+                    solutions++;
+                } while (solver.nextSolution());
+            }
+            assertEquals(count(capacity, copies, lower, weights, energies), solutions);
+        }
+    }
+
+    @Test
+    public void testSum() {
+        Solver solver = SolverFactory.makeSolver();
+        assertTrue(KnapsackConstraint.sum("small", 50, solver).hasEnumeratedDomain());
+        IntVar large = KnapsackConstraint.sum("large", 5000000, solver);
+        assertFalse(large.hasEnumeratedDomain());
+        assertEquals(0, large.getLB());
+        assertEquals(5000000, large.getUB());
+    }
+}
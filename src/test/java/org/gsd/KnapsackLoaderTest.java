@@ -0,0 +1,110 @@
+package org.gsd;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author jimmy
+ */
+public class KnapsackLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String INSTANCE = "2\n3\n10\n[[1, 2, 3],\n[4, 5, 6]]\n[7, 8, 9]\n";
+
+    private static KnapsackProblem parse(String instance) throws IOException {
+        return KnapsackLoader.parse(ByteBuffer.wrap(instance.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static void assertProblemEquals(KnapsackProblem expected, KnapsackProblem actual) {
+        assertEquals(expected.getCapacity(), actual.getCapacity());
+        assertArrayEquals(expected.getWeights(), actual.getWeights());
+        assertArrayEquals(expected.getEnergies(), actual.getEnergies());
+    }
+
+    @Test
+    public void testParse() throws IOException {
+        KnapsackProblem problem = parse(INSTANCE);
+        assertEquals(10, problem.getCapacity());
+        assertArrayEquals(new int[]{7, 8, 9}, problem.getWeights());
+        assertArrayEquals(new int[][]{{1, 2, 3}, {4, 5, 6}}, problem.getEnergies());
+
+        for (String malformed : new String[]{
+            "", "2\n3\n10\n", "2\n3\n10\n[[1, 2, 3]]\n[7, 8, 9]\n",
+            "2\n3\n10\n[[1, 2, 3],\n[4, 5]]\n[7, 8, 9]\n",
+            "2\n3\n10\n[[1, 2, 3],\n[4, 5, 6]]\n[7, 8, 9, 10]\n",
+            "2\n3\n10\n[[1, 2, x],\n[4, 5, 6]]\n[7, 8, 9]\n",
+            "2\n3\n10\n[[1, 2, 3],\n[4, 5, 6]]\n[7, 8, 99999999999]\n"}) {
+            try {
+                parse(malformed);
+                fail(malformed);
+            } catch (IOException e) {
+            }
+        }
+    }
+
+    @Test
+    public void testCache() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("instance.dat");
+        Files.write(path, INSTANCE.getBytes(StandardCharsets.US_ASCII));
+        Path cache = path.resolveSibling("instance.dat" + KnapsackLoader.CACHE_SUFFIX);
+
+        /* Only a load asked to cache writes one. */
+        KnapsackProblem expected = parse(INSTANCE);
+        assertProblemEquals(expected, KnapsackLoader.load(path));
+        assertFalse(Files.exists(cache));
+        assertProblemEquals(expected, KnapsackLoader.load(path, true));
+        assertTrue(Files.isRegularFile(cache));
+        assertProblemEquals(expected, KnapsackLoader.load(path, true));
+        assertProblemEquals(expected, KnapsackLoader.load(cache));
+
+        /* An instance of another size invalidates the cache, even with the same time. */
+        FileTime modified = Files.getLastModifiedTime(path);
+        String longer = INSTANCE.replace("10", "100");
+        Files.write(path, longer.getBytes(StandardCharsets.US_ASCII));
+        Files.setLastModifiedTime(path, modified);
+        assertProblemEquals(parse(longer), KnapsackLoader.load(path, true));
+        assertProblemEquals(parse(longer), KnapsackLoader.load(cache));
+
+        /* So does one of the same size with another time, even an older one. */
+        String changed = longer.replace("100", "101");
+        Files.write(path, changed.getBytes(StandardCharsets.US_ASCII));
+        Files.setLastModifiedTime(path, FileTime.fromMillis(modified.toMillis() - 1000));
+        assertProblemEquals(parse(changed), KnapsackLoader.load(path, true));
+        assertProblemEquals(parse(changed), KnapsackLoader.load(cache));
+
+        /* And a corrupt cache. */
+        Files.write(cache, new byte[]{1, 2, 3});
+        assertProblemEquals(parse(changed), KnapsackLoader.load(path, true));
+        assertProblemEquals(parse(changed), KnapsackLoader.load(cache));
+    }
+
+    @Test
+    public void testInstances() throws IOException, URISyntaxException {
+        Path directory = Paths.get(KnapsackLoaderTest.class.getResource("/kp").toURI());
+        try (DirectoryStream<Path> instances = Files.newDirectoryStream(directory, "*.dat")) {
+            for (Path instance : instances) {
+                KnapsackProblem problem = KnapsackLoader.parse(ByteBuffer.wrap(Files.readAllBytes(instance)));
+                assertEquals(problem.getNumberOfObjectives(), problem.getEnergies().length);
+                assertProblemEquals(problem, KnapsackLoader.read(KnapsackLoader.encode(problem)));
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.gsd;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author jimmy
+ */
+public class KnapsackPresolverTest {
+
+    private static Set<List<Integer>> set(List<int[]> points) {
+        Set<List<Integer>> set = new HashSet<>();
+        for (int[] point : points) {
+            List<Integer> list = new ArrayList<>();
+            for (int p : point) {
+                list.add(p);
+            }
+            set.add(list);
+        }
+        return set;
+    }
+
+    private static List<int[]> restore(KnapsackPresolver presolver) {
+        List<int[]> front = new ArrayList<>();
+        for (int[] point : NemhauserUllmann.pareto(presolver.getReduced())) {
+            front.add(presolver.restore(point));
+        }
+        return front;
+    }
+
+    @Test
+    public void testFixed() {
+        /* Too heavy, no energy, free, not fitting along with 0 and 5 dominating it, and 5 equal to 0. */
+        int[] weights = {4, 20, 3, 0, 5, 4, 6};
+        int[][] energies = {
+            {5, 3, 0, 1, 4, 5, 2},
+            {5, 3, 0, 0, 3, 5, 7}
+        };
+        KnapsackPresolver presolver = new KnapsackPresolver(new KnapsackProblem(12, weights, energies));
+        KnapsackProblem reduced = presolver.getReduced();
+        assertArrayEquals(new int[]{0, 5, 6}, presolver.getItems());
+        assertEquals(12, reduced.getCapacity());
+        assertArrayEquals(new int[]{1, 0}, presolver.restore(new int[2]));
+
+        BitSet selected = new BitSet();
+        selected.set(1);
+        selected.set(2);
+        BitSet expected = new BitSet();
+        expected.set(3);
+        expected.set(5);
+        expected.set(6);
+        assertEquals(expected, presolver.restore(selected));
+
+        /* Everything fits. */
+        presolver = new KnapsackPresolver(new KnapsackProblem(100, weights, energies));
+        assertEquals(1, presolver.getReduced().getNumberOfObjects());
+        assertEquals(set(NemhauserUllmann.pareto(presolver.getOriginal())), set(restore(presolver)));
+    }
+
+    @Test
+    public void testFronts() {
+        Random random = new Random(0);
+        for (int repeat = 0; repeat < 100; repeat++) {
+            int n = 1 + random.nextInt(14);
+            int p = 1 + random.nextInt(3);
+            int[] weights = new int[n];
+            int[][] energies = new int[p][n];
+            int totalWeight = 0;
+            for (int i = 0; i < n; i++) {
+                /* Correlated and often equal, for many dominated items. */
+                weights[i] = random.nextInt(8);
+                totalWeight += weights[i];
+                for (int[] energy : energies) {
+                    energy[i] = Math.max(0, weights[i] + random.nextInt(5) - 2);
+                }
+            }
+            KnapsackPresolver presolver = new KnapsackPresolver(
+                    new KnapsackProblem(random.nextInt(totalWeight + 2), weights, energies));
+            assertTrue(presolver.getReduced().getNumberOfObjects() > 0);
+            assertEquals(set(NemhauserUllmann.pareto(presolver.getOriginal())), set(restore(presolver)));
+        }
+    }
+
+    @Test
+    public void testInstance() throws IOException, URISyntaxException {
+        KnapsackProblem problem = KnapsackLoader.load(Paths.get(KnapsackPresolverTest.class.getResource("/kp/KP_p-3_n-10_ins-1.dat").toURI()));
+        KnapsackPresolver presolver = new KnapsackPresolver(problem);
+        assertTrue(presolver.getReduced().getNumberOfObjects() < problem.getNumberOfObjects());
+        assertEquals(set(NemhauserUllmann.pareto(problem)), set(restore(presolver)));
+    }
+}
@@ -0,0 +1,116 @@
+package org.gsd;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.uma.jmetal.operator.impl.crossover.SinglePointCrossover;
+import org.uma.jmetal.operator.impl.mutation.BitFlipMutation;
+import org.uma.jmetal.solution.BinarySolution;
+import org.uma.jmetal.util.solutionattribute.impl.NumberOfViolatedConstraints;
+
+/**
+ *
+ * @author jimmy
+ */
+public class KnapsackProblemTest {
+
+    private static KnapsackProblem randomProblem(Random random, int objectives, int objects) {
+        int[] weights = new int[objects];
+        int[][] energies = new int[objectives][objects];
+        for (int i = 0; i < objects; i++) {
+            weights[i] = 1 + random.nextInt(100);
+            for (int[] energy : energies) {
+                energy[i] = random.nextInt(100);
+            }
+        }
+        return new KnapsackProblem(objects * 25, weights, energies);
+    }
+
+    private static void assertEvaluated(KnapsackProblem problem, BinarySolution solution) {
+        BitSet items = solution.getVariableValue(0);
+        for (int objective = 0; objective < problem.getNumberOfObjectives(); objective++) {
+            int totalEnergy = 0;
+            for (int i = 0; i < problem.getNumberOfObjects(); i++) {
+                if (items.get(i)) {
+                    totalEnergy += problem.getEnergies()[objective][i];
+                }
+            }
+            assertEquals(-totalEnergy, solution.getObjective(objective), 0);
+        }
+        int totalWeight = 0;
+        for (int i = 0; i < problem.getNumberOfObjects(); i++) {
+            if (items.get(i)) {
+                totalWeight += problem.getWeights()[i];
+            }
+        }
+        assertEquals(totalWeight, problem.getTotalWeight(solution));
+        assertEquals(totalWeight > problem.getCapacity() ? 1 : 0,
+                (int) new NumberOfViolatedConstraints<BinarySolution>().getAttribute(solution));
+    }
+
+    @Test
+    public void testDeltaEvaluation() {
+        Random random = new Random(0);
+        KnapsackProblem problem = randomProblem(random, 3, 130);
+        BitFlipMutation mutation = new BitFlipMutation(2.0 / problem.getNumberOfObjects());
+        SinglePointCrossover crossover = new SinglePointCrossover(0.5);
+
+        List<BinarySolution> population = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            BinarySolution solution = problem.createSolution();
+            problem.evaluate(solution);
+            problem.evaluateConstraints(solution);
+            population.add(solution);
+        }
+        for (int generation = 0; generation < 200; generation++) {
+            BinarySolution parent1 = population.get(random.nextInt(population.size()));
+            BinarySolution parent2 = population.get(random.nextInt(population.size()));
+            List<BinarySolution> offspring = new ArrayList<>();
+            if (random.nextBoolean()) {
+                offspring.addAll(crossover.execute(Arrays.asList(parent1, parent2)));
+            } else {
+                offspring.add((BinarySolution) parent1.copy());
+            }
+            for (BinarySolution child : offspring) {
+                mutation.execute(child);
+                if (random.nextBoolean()) {
+                    problem.flip(child, random.nextInt(problem.getNumberOfObjects()));
+                }
+                problem.evaluate(child);
+                problem.evaluateConstraints(child);
+                assertEvaluated(problem, child);
+                population.set(random.nextInt(population.size()), child);
+            }
+            for (BinarySolution solution : population) {
+                assertEvaluated(problem, solution);
+            }
+        }
+    }
+
+    @Test
+    public void testLocalSearch() {
+        Random random = new Random(1);
+        KnapsackProblem problem = randomProblem(random, 4, 70);
+        KnapsackLocalSearch localSearch = new KnapsackLocalSearch(problem);
+        for (int i = 0; i < 100; i++) {
+            BinarySolution solution = problem.createSolution();
+            problem.evaluate(solution);
+            problem.evaluateConstraints(solution);
+            BinarySolution result = localSearch.execute(solution);
+            assertEvaluated(problem, result);
+            assertEvaluated(problem, solution);
+
+            int weight = problem.getTotalWeight(result);
+            assertTrue(weight <= problem.getCapacity());
+            BitSet items = result.getVariableValue(0);
+            for (int j = 0; j < problem.getNumberOfObjects(); j++) {
+                assertTrue(items.get(j) || weight + problem.getWeights()[j] > problem.getCapacity());
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.gsd;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.uma.jmetal.algorithm.Algorithm;
+import org.uma.jmetal.algorithm.impl.AbstractEvolutionaryAlgorithm;
+import org.uma.jmetal.solution.BinarySolution;
+import org.uma.jmetal.util.evaluator.impl.SequentialSolutionListEvaluator;
+import org.uma.jmetal.util.solutionattribute.impl.NumberOfViolatedConstraints;
+
+/**
+ *
+ * @author jimmy
+ */
+public class KnapsackRunnerTest {
+
+    private static KnapsackProblem problem(String name) throws IOException, URISyntaxException {
+        return KnapsackLoader.load(Paths.get(KnapsackRunnerTest.class.getResource("/kp/" + name).toURI()));
+    }
+
+    private static Set<List<Integer>> set(List<int[]> points, int sign) {
+        Set<List<Integer>> set = new HashSet<>();
+        for (int[] point : points) {
+            List<Integer> list = new ArrayList<>();
+            for (int p : point) {
+                list.add(sign * p);
+            }
+            set.add(list);
+        }
+        return set;
+    }
+
+    @Test
+    public void testChocoSeeds() throws IOException, URISyntaxException {
+        KnapsackProblem problem = problem("KP_p-3_n-20_ins-1.dat");
+        List<BinarySolution> seeds = KnapsackRunner.chocoSeeds(problem, 10, new Budget(), 0);
+        assertEquals(10, seeds.size());
+        NumberOfViolatedConstraints<BinarySolution> violated = new NumberOfViolatedConstraints<>();
+        for (BinarySolution seed : seeds) {
+            assertEquals(0, (int) violated.getAttribute(seed));
+            assertTrue(problem.getTotalWeight(seed) <= problem.getCapacity());
+        }
+        assertTrue(KnapsackRunner.chocoSeeds(problem, 0, new Budget(), 0).isEmpty());
+
+        /* The archive holds the points of the seeds that the later ones did not dominate. */
+        List<int[]> front = new ArrayList<>();
+        KnapsackRunner.chocoSeeds(problem, 10, new Budget(), 0, front);
+        int[][] points = new int[seeds.size()][];
+        for (int k = 0; k < points.length; k++) {
+            points[k] = new int[problem.getNumberOfObjectives()];
+            for (int i = 0; i < points[k].length; i++) {
+                points[k][i] = -(int) seeds.get(k).getObjective(i);
+            }
+        }
+        List<int[]> nonDominated = new ArrayList<>();
+        for (int k : ParetoFilter.nonDominated(points)) {
+            nonDominated.add(points[k]);
+        }
+        assertEquals(set(nonDominated, 1), set(front, 1));
+    }
+
+    @Test
+    public void testSeededPopulation() throws IOException, URISyntaxException {
+        KnapsackProblem problem = problem("KP_p-3_n-20_ins-1.dat");
+        List<BinarySolution> seeds = KnapsackRunner.chocoSeeds(problem, 10, new Budget(), 0);
+        Budget budget = new Budget().withEvaluations(100);
+        Algorithm<List<BinarySolution>> nsgaii = KnapsackRunner.nsgaii(problem, 100, budget,
+                budget.count(new SequentialSolutionListEvaluator<>()), seeds);
+        nsgaii.run();
+        /* Out of budget once the initial population is evaluated. */
+        Set<String> items = new HashSet<>();
+        for (BinarySolution solution : ((AbstractEvolutionaryAlgorithm<BinarySolution, ?>) nsgaii).getPopulation()) {
+            items.add(solution.getVariableValue(0).toString());
+        }
+        for (BinarySolution seed : seeds) {
+            assertTrue(items.contains(seed.getVariableValue(0).toString()));
+        }
+    }
+
+    @Test
+    public void testHybrid() throws IOException, URISyntaxException {
+        KnapsackProblem problem = problem("KP_p-3_n-20_ins-1.dat");
+        KnapsackRunner.Result result = KnapsackRunner.solve(12, problem, 1, new Budget(), 0, null);
+        assertEquals("hybrid", result.name);
+        assertFalse(result.limitReached);
+        assertTrue(result.streamed);
+        assertEquals(set(NemhauserUllmann.pareto(problem), 1), set(result.paretoFront, -1));
+    }
+}
@@ -0,0 +1,139 @@
+package org.gsd;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.SolverFactory;
+import org.chocosolver.solver.variables.IntVar;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author jimmy
+ */
+public class NemhauserUllmannTest {
+
+    private static Set<List<Integer>> set(List<int[]> points) {
+        Set<List<Integer>> set = new HashSet<>();
+        for (int[] point : points) {
+            List<Integer> list = new ArrayList<>();
+            for (int p : point) {
+                list.add(p);
+            }
+            assertTrue(set.add(list));
+        }
+        return set;
+    }
+
+    private static KnapsackProblem load(String name) throws IOException, URISyntaxException {
+        Path directory = Paths.get(NemhauserUllmannTest.class.getResource("/kp").toURI());
+        return KnapsackLoader.load(directory.resolve(name));
+    }
+
+    /* Every subset of the items, filtered. */
+    private static List<int[]> bruteForce(KnapsackProblem problem) {
+        int n = problem.getNumberOfObjects();
+        int p = problem.getNumberOfObjectives();
+        List<int[]> points = new ArrayList<>();
+        for (int subset = 0; subset < 1 << n; subset++) {
+            int weight = 0;
+            int[] point = new int[p];
+            for (int i = 0; i < n; i++) {
+                if ((subset & 1 << i) != 0) {
+                    weight += problem.getWeights()[i];
+                    for (int k = 0; k < p; k++) {
+                        point[k] += problem.getEnergies()[k][i];
+                    }
+                }
+            }
+            if (weight <= problem.getCapacity()) {
+                points.add(point);
+            }
+        }
+        int[][] array = points.toArray(new int[points.size()][]);
+        List<int[]> front = new ArrayList<>();
+        for (int i : ParetoFilter.nonDominated(array)) {
+            front.add(array[i]);
+        }
+        return front;
+    }
+
+    @Test
+    public void testBruteForce() {
+        Random random = new Random(0);
+        for (int repeat = 0; repeat < 50; repeat++) {
+            int n = 1 + random.nextInt(12);
+            int p = 1 + random.nextInt(4);
+            int[] weights = new int[n];
+            int[][] energies = new int[p][n];
+            int totalWeight = 0;
+            for (int i = 0; i < n; i++) {
+                /* Few distinct values, for ties and duplicate points. */
+                weights[i] = 1 + random.nextInt(10);
+                totalWeight += weights[i];
+                for (int[] energy : energies) {
+                    energy[i] = random.nextInt(5);
+                }
+            }
+            KnapsackProblem problem = new KnapsackProblem(random.nextInt(totalWeight + 1), weights, energies);
+            assertEquals(set(bruteForce(problem)), set(NemhauserUllmann.pareto(problem)));
+        }
+    }
+
+    @Test
+    public void testOia() throws IOException, URISyntaxException {
+        for (String name : new String[]{"KP_p-3_n-10_ins-1.dat", "KP_p-3_n-20_ins-1.dat", "KP_p-4_n-10_ins-1.dat", "KP_p-5_n-10_ins-1.dat"}) {
+            KnapsackProblem problem = load(name);
+            Solver solver = SolverFactory.makeSolver();
+            IntVar[] objectives = KnapsackRunner.choco(problem, solver, new Budget(), 0, true);
+            assertEquals(name, set(Moo.oia(solver, objectives)), set(NemhauserUllmann.pareto(problem)));
+        }
+    }
+
+    @Test
+    public void testParallel() throws IOException, URISyntaxException {
+        KnapsackProblem problem = load("KP_p-4_n-20_ins-1.dat");
+        Set<List<Integer>> added = new HashSet<>();
+        List<int[]> front = NemhauserUllmann.pareto(problem, 4, new Budget(), new ParetoListener() {
+
+            @Override
+            public synchronized void added(int[] point) {
+                assertTrue(added.addAll(set(Collections.singletonList(point))));
+            }
+
+            @Override
+            public synchronized void removed(int[] point) {
+                assertTrue(added.removeAll(set(Collections.singletonList(point))));
+            }
+        });
+        assertEquals(set(NemhauserUllmann.pareto(problem)), set(front));
+        /* Replaying the notifications yields the front. */
+        assertEquals(set(front), added);
+    }
+
+    @Test
+    public void testBudget() throws IOException, URISyntaxException {
+        KnapsackProblem problem = load("KP_p-3_n-10_ins-1.dat");
+        Budget budget = new Budget();
+        budget.exhaust();
+        List<int[]> front = NemhauserUllmann.pareto(problem, 1, budget, null);
+        assertEquals(1, front.size());
+        assertEquals(set(front), set(Collections.singletonList(new int[3])));
+
+        KnapsackRunner.Result result = KnapsackRunner.solve(11, problem, 1, new Budget(), 0, null);
+        assertEquals("nemhauserUllmann", result.name);
+        assertEquals(set(NemhauserUllmann.pareto(problem)).size(), result.paretoFront.size());
+        assertFalse(result.limitReached);
+    }
+}
@@ -0,0 +1,121 @@
+package org.gsd;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author jimmy
+ */
+public class ParetoArchiveTest {
+
+    private static boolean dominates(int[] a, int[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] < b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] randomPoint(Random random, int dimensions, int range) {
+        int[] point = new int[dimensions];
+        for (int i = 0; i < point.length; i++) {
+            point[i] = random.nextInt(range);
+        }
+        return point;
+    }
+
+    private static void sort(List<int[]> points) {
+        points.sort((a, b) -> {
+            for (int i = 0; i < a.length; i++) {
+                if (a[i] != b[i]) {
+                    return Integer.compare(a[i], b[i]);
+                }
+            }
+            return 0;
+        });
+    }
+
+    @Test
+    public void testAgainstListScan() {
+        Random random = new Random(0);
+        for (int dimensions = 1; dimensions <= 5; dimensions++) {
+            ParetoArchive<int[]> archive = new ParetoArchive<>(dimensions);
+            List<int[]> expected = new ArrayList<>();
+            for (int k = 0; k < 5000; k++) {
+                int[] point = randomPoint(random, dimensions, 1000);
+
+                boolean dominated = expected.stream().anyMatch(x -> dominates(x, point));
+                assertEquals(dominated, archive.isDominated(point));
+                if (!dominated) {
+                    expected.removeIf(x -> dominates(point, x));
+                    expected.add(point);
+                }
+                assertEquals(!dominated, archive.add(point, point));
+                assertEquals(expected.size(), archive.size());
+            }
+            List<int[]> actual = archive.getPoints();
+            sort(actual);
+            sort(expected);
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertArrayEquals(expected.get(i), actual.get(i));
+            }
+            for (int[] value : archive.getValues()) {
+                assertTrue(expected.contains(value));
+            }
+        }
+    }
+
+    @Test
+    public void testRemoveDominated() {
+        ParetoArchive<Void> archive = new ParetoArchive<>(2);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(archive.add(new int[]{i, 99 - i}));
+        }
+        assertFalse(archive.add(new int[]{50, 49}));
+        assertEquals(50, archive.removeDominated(new int[]{49, 99}));
+        assertEquals(50, archive.size());
+        assertEquals(50, archive.removeDominated(new int[]{99, 99}));
+        assertTrue(archive.isEmpty());
+        assertTrue(archive.add(new int[]{0, 0}));
+        assertEquals(1, archive.size());
+    }
+
+    @Test
+    public void testListener() {
+        Random random = new Random(1);
+        ParetoArchive<Void> archive = new ParetoArchive<>(3);
+        List<int[]> front = new ArrayList<>();
+        archive.setListener(new ParetoListener() {
+
+            @Override
+            public void added(int[] point) {
+                front.add(point.clone());
+            }
+
+            @Override
+            public void removed(int[] point) {
+                assertTrue(front.removeIf(x -> Arrays.equals(x, point)));
+            }
+        });
+        for (int k = 0; k < 5000; k++) {
+            archive.add(randomPoint(random, 3, 1000));
+            assertEquals(archive.size(), front.size());
+        }
+        List<int[]> actual = archive.getPoints();
+        sort(actual);
+        sort(front);
+        for (int i = 0; i < front.size(); i++) {
+            assertArrayEquals(front.get(i), actual.get(i));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.gsd;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.SolverFactory;
+import org.chocosolver.solver.variables.IntVar;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author jimmy
+ */
+public class ParetoCheckpointTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static KnapsackProblem problem(String name) throws IOException, URISyntaxException {
+        return KnapsackLoader.load(Paths.get(ParetoCheckpointTest.class.getResource("/kp/" + name).toURI()));
+    }
+
+    private static Set<List<Integer>> set(List<int[]> points) {
+        return set(points, 1);
+    }
+
+    private static Set<List<Integer>> set(List<int[]> points, int sign) {
+        Set<List<Integer>> set = new HashSet<>();
+        for (int[] point : points) {
+            List<Integer> list = new ArrayList<>();
+            for (int p : point) {
+                list.add(sign * p);
+            }
+            set.add(list);
+        }
+        return set;
+    }
+
+    private static List<int[]> oia(KnapsackProblem problem, Budget budget, ParetoCheckpoint checkpoint) {
+        Solver solver = SolverFactory.makeSolver();
+        IntVar[] objectives = KnapsackRunner.choco(problem, solver, budget);
+        return Moo.oia(solver, null, checkpoint, objectives);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("front.ckpt");
+        ParetoCheckpoint checkpoint = new ParetoCheckpoint(path, 1000);
+        assertTrue(checkpoint.getPoints().isEmpty());
+        assertFalse(checkpoint.isComplete());
+
+        ParetoArchive<Void> archive = new ParetoArchive<>(3);
+        archive.add(new int[]{5, 1, 2});
+        archive.add(new int[]{1, 5, 7});
+        archive.add(new int[]{-3, 9, 0});
+        checkpoint.save(SolverFactory.makeSolver(), archive, true);
+
+        ParetoCheckpoint loaded = new ParetoCheckpoint(path, 1000);
+        assertTrue(loaded.isComplete());
+        assertEquals(set(archive.getPoints()), set(loaded.getPoints()));
+        assertEquals(1, Files.list(folder.getRoot().toPath()).count());
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorrupt() throws IOException {
+        Path path = folder.newFile("front.ckpt").toPath();
+        Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+        new ParetoCheckpoint(path, 1000);
+    }
+
+    @Test
+    public void testResume() throws IOException, URISyntaxException {
+        KnapsackProblem problem = problem("KP_p-3_n-20_ins-1.dat");
+        Path path = folder.getRoot().toPath().resolve("front.ckpt");
+        /* As if the search was stopped after finding some of the front. */
+        List<int[]> points = NemhauserUllmann.pareto(problem);
+        Set<List<Integer>> front = set(points);
+        ParetoArchive<Void> archive = new ParetoArchive<>(problem.getNumberOfObjectives());
+        points.subList(0, points.size() / 2).forEach(archive::add);
+        new ParetoCheckpoint(path, 1).save(SolverFactory.makeSolver(), archive, false);
+        ParetoCheckpoint partial = new ParetoCheckpoint(path, 1);
+        assertFalse(partial.isComplete());
+        assertEquals(points.size() / 2, partial.getPoints().size());
+
+        assertEquals(front, set(oia(problem, new Budget(), partial)));
+        ParetoCheckpoint complete = new ParetoCheckpoint(path, 1);
+        assertTrue(complete.isComplete());
+        assertEquals(front, set(complete.getPoints()));
+        assertTrue(complete.getNodes() > partial.getNodes());
+
+        /* Nothing is left to search. */
+        Solver solver = SolverFactory.makeSolver();
+        IntVar[] objectives = KnapsackRunner.choco(problem, solver, new Budget());
+        assertEquals(front, set(Moo.oia(solver, null, complete, objectives)));
+        assertEquals(0, solver.getMeasures().getNodeCount());
+    }
+
+    /* Through the runner, on the reduced problem, for oia and gia. */
+    @Test
+    public void testSolve() throws IOException, URISyntaxException {
+        KnapsackProblem problem = problem("KP_p-3_n-20_ins-1.dat");
+        Set<List<Integer>> front = set(NemhauserUllmann.pareto(problem));
+        for (int algorithm : new int[]{0, 16}) {
+            Path path = folder.getRoot().toPath().resolve("front." + algorithm + ".ckpt");
+            KnapsackRunner.Result result = KnapsackRunner.solve(algorithm, problem, 1, new Budget(), 0, null,
+                    new ParetoCheckpoint(path, 1000));
+            assertEquals(front, set(result.paretoFront, -1));
+            assertTrue(new ParetoCheckpoint(path, 1000).isComplete());
+
+            result = KnapsackRunner.solve(algorithm, problem, 1, new Budget(), 0, null, new ParetoCheckpoint(path, 1000));
+            assertEquals(front, set(result.paretoFront, -1));
+            assertEquals(0, result.solutions);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.gsd;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ *
+ * @author jimmy
+ */
+public class ParetoFilterTest {
+
+    @Test
+    public void testAgainstArchive() {
+        Random random = new Random(0);
+        for (int dimensions = 1; dimensions <= 6; dimensions++) {
+            for (int size : new int[]{0, 1, 2, 100, 3000}) {
+                int[][] points = new int[size][dimensions];
+                ParetoArchive<Void> archive = new ParetoArchive<>(dimensions);
+                for (int[] point : points) {
+                    for (int k = 0; k < dimensions; k++) {
+                        /* Small ranges for plenty of duplicates and ties. */
+                        point[k] = random.nextInt(dimensions == 1 ? 5 : 40);
+                    }
+                    archive.add(point);
+                }
+                Set<List<Integer>> expected = new HashSet<>();
+                for (int[] point : archive.getPoints()) {
+                    expected.add(toList(point));
+                }
+                Set<List<Integer>> actual = new HashSet<>();
+                int[] nonDominated = ParetoFilter.nonDominated(points);
+                for (int p : nonDominated) {
+                    actual.add(toList(points[p]));
+                }
+                assertEquals(expected.size(), nonDominated.length);
+                assertEquals(expected, actual);
+            }
+        }
+    }
+
+    private static List<Integer> toList(int[] point) {
+        List<Integer> list = new ArrayList<>();
+        Arrays.stream(point).forEach(list::add);
+        return list;
+    }
+}
@@ -0,0 +1,108 @@
+package org.gsd;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.SolverFactory;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.constraints.ICF;
+import org.chocosolver.solver.search.strategy.ISF;
+import org.chocosolver.solver.variables.BoolVar;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.VF;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author jimmy
+ */
+public class PropKnapsackBoundTest {
+
+    private static Set<List<Integer>> set(List<int[]> points) {
+        Set<List<Integer>> set = new HashSet<>();
+        for (int[] point : points) {
+            List<Integer> list = new ArrayList<>();
+            for (int p : point) {
+                list.add(p);
+            }
+            set.add(list);
+        }
+        return set;
+    }
+
+    private static IntVar[] model(Solver solver, int capacity, int[] weights, int[][] energies, boolean bound) {
+        BoolVar[] occurences = VF.boolArray("occurences", weights.length, solver);
+        IntVar totalWeight = VF.enumerated("totalWeight", 0, capacity, solver);
+        IntVar[] totalEnergies = new IntVar[energies.length];
+        for (int i = 0; i < energies.length; i++) {
+            int sum = 0;
+            for (int energy : energies[i]) {
+                sum += energy;
+            }
+            totalEnergies[i] = VF.enumerated("totalEnergy[" + i + "]", 0, sum, solver);
+            solver.post(ICF.knapsack(occurences, totalWeight, totalEnergies[i], weights, energies[i]));
+        }
+        if (bound) {
+            solver.post(new Constraint("KnapsackBound", new PropKnapsackBound(occurences, totalWeight, totalEnergies, weights, energies)));
+        }
+        solver.set(ISF.lexico_UB(occurences));
+        return totalEnergies;
+    }
+
+    /* With the energies bounded below, as by PropPareto, no solution is lost. */
+    @Test
+    public void testSolutions() {
+        Random random = new Random(0);
+        for (int repeat = 0; repeat < 200; repeat++) {
+            int n = 1 + random.nextInt(8);
+            int[] weights = new int[n];
+            int[][] energies = new int[1 + random.nextInt(3)][n];
+            int totalWeight = 0;
+            for (int i = 0; i < n; i++) {
+                weights[i] = 1 + random.nextInt(9);
+                totalWeight += weights[i];
+                for (int[] energy : energies) {
+                    energy[i] = random.nextInt(9);
+                }
+            }
+            int capacity = random.nextInt(totalWeight + 1);
+            int lower = random.nextInt(20);
+            long[] counts = new long[2];
+            for (int bound = 0; bound < 2; bound++) {
+                Solver solver = SolverFactory.makeSolver();
+                IntVar[] objectives = model(solver, capacity, weights, energies, bound == 1);
+                solver.post(ICF.arithm(objectives[0], ">=", lower));
+                if (solver.findSolution()) {
+                    do {
+                        counts[bound]++;
+                    } while (solver.nextSolution());
+                }
+            }
+            assertEquals(counts[0], counts[1]);
+        }
+    }
+
+    @Test
+    public void testOia() throws IOException, URISyntaxException {
+        KnapsackProblem problem = KnapsackLoader.load(Paths.get(PropKnapsackBoundTest.class.getResource("/kp/KP_p-3_n-20_ins-1.dat").toURI()));
+        long[] nodes = new long[2];
+        List<Set<List<Integer>>> fronts = new ArrayList<>();
+        for (int bound = 0; bound < 2; bound++) {
+            Solver solver = SolverFactory.makeSolver();
+            IntVar[] objectives = model(solver, problem.getCapacity(), problem.getWeights(), problem.getEnergies(), bound == 1);
+            fronts.add(set(Moo.oia(solver, objectives)));
+            nodes[bound] = solver.getMeasures().getNodeCount();
+        }
+        assertEquals(fronts.get(0), fronts.get(1));
+        assertEquals(set(NemhauserUllmann.pareto(problem)), fronts.get(1));
+        assertTrue(nodes[1] < nodes[0]);
+    }
+}
@@ -0,0 +1,82 @@
+package org.gsd;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import org.uma.jmetal.qualityindicator.impl.GenerationalDistance;
+import org.uma.jmetal.qualityindicator.impl.InvertedGenerationalDistance;
+import org.uma.jmetal.qualityindicator.impl.InvertedGenerationalDistancePlus;
+import org.uma.jmetal.solution.DoubleSolution;
+import org.uma.jmetal.util.front.Front;
+import org.uma.jmetal.util.front.imp.ArrayFront;
+import org.uma.jmetal.util.front.util.FrontNormalizer;
+import org.uma.jmetal.util.front.util.FrontUtils;
+import org.uma.jmetal.util.point.Point;
+import org.uma.jmetal.util.point.impl.ArrayPoint;
+
+/**
+ *
+ * @author jimmy
+ */
+public class QualityTest {
+
+    private static List<Point> front(Random random, int size, int dimensions) {
+        List<Point> front = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            double[] point = new double[dimensions];
+            for (int k = 0; k < dimensions; k++) {
+                point[k] = random.nextInt(50);
+            }
+            front.add(new ArrayPoint(point));
+        }
+        return front;
+    }
+
+    private static Front toFront(List<Point> points) {
+        ArrayFront front = new ArrayFront(points.size(), points.get(0).getNumberOfDimensions());
+        for (int i = 0; i < points.size(); i++) {
+            front.setPoint(i, points.get(i));
+        }
+        return front;
+    }
+
+    /*
+     * The distances looked up in the KD-trees match those of jMetal's
+     * indicators, on the raw and the normalized fronts.
+     */
+    @Test
+    public void testDistancesAgainstJMetal() throws Exception {
+        Random random = new Random(0);
+        for (int dimensions = 2; dimensions <= 4; dimensions++) {
+            for (int size : new int[]{5, 20, 60}) {
+                List<List<Point>> paretoFronts = Arrays.asList(
+                        front(random, size, dimensions), front(random, size + 3, dimensions));
+                Front reference = toFront(Quality.merge(paretoFronts));
+                FrontNormalizer normalizer = new FrontNormalizer(reference);
+                Front normalizedReference = normalizer.normalize(reference);
+                for (List<Point> paretoFront : paretoFronts) {
+                    List<DoubleSolution> population = FrontUtils.convertFrontToSolutionList(toFront(paretoFront));
+                    List<DoubleSolution> normalizedPopulation = FrontUtils.convertFrontToSolutionList(
+                            normalizer.normalize(toFront(paretoFront)));
+                    Quality.Stats stats = Quality.computeStats(population, reference);
+
+                    assertEquals(new GenerationalDistance<>(normalizedReference).evaluate(normalizedPopulation),
+                            stats.get(4), 1e-9);
+                    assertEquals(new GenerationalDistance<>(reference).evaluate(population),
+                            stats.get(5), 1e-9);
+                    assertEquals(new InvertedGenerationalDistance<>(normalizedReference).evaluate(normalizedPopulation),
+                            stats.get(6), 1e-9);
+                    assertEquals(new InvertedGenerationalDistance<>(reference).evaluate(population),
+                            stats.get(7), 1e-9);
+                    assertEquals(new InvertedGenerationalDistancePlus<>(normalizedReference).evaluate(normalizedPopulation),
+                            stats.get(8), 1e-9);
+                    assertEquals(new InvertedGenerationalDistancePlus<>(reference).evaluate(population),
+                            stats.get(9), 1e-9);
+                }
+            }
+        }
+    }
+}